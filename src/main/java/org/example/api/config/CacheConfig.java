@@ -0,0 +1,50 @@
+package org.example.api.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDate;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String ANALYTICS = "analytics";
+    public static final String CATEGORIES = "categories";
+    public static final String COLORS = "colors";
+    public static final String SIZES = "sizes";
+
+    @Value("${app.cache.analytics.spec:maximumSize=500,expireAfterWrite=10m}")
+    private String analyticsSpec;
+
+    // Cleared on every change; the expiry only bounds changes made outside the application
+    @Value("${app.cache.reference.spec:maximumSize=1000,expireAfterWrite=1h}")
+    private String referenceSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(ANALYTICS, Caffeine.from(analyticsSpec).recordStats().build());
+        for (String name : new String[]{CATEGORIES, COLORS, SIZES}) {
+            cacheManager.registerCustomCache(name, Caffeine.from(referenceSpec).recordStats().build());
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Key analytics results by method, arguments and the current day.
+     * Every analytics window ends today, so a result moves to a new key when the day rolls over.
+     */
+    @Bean
+    public KeyGenerator analyticsKeyGenerator() {
+        return (target, method, params) ->
+                new SimpleKey(method.getName(), SimpleKeyGenerator.generateKey(params), LocalDate.now());
+    }
+}
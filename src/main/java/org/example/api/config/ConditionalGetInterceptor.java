@@ -0,0 +1,62 @@
+package org.example.api.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.api.service.catalogue.CatalogueVersions;
+import org.example.api.service.catalogue.CatalogueVersions.Aggregate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Conditional GET for catalogue routes. The ETag and Last-Modified come from the recorded versions of the
+ * aggregates a route is built from, the same on every instance, so a 304 is answered before the handler
+ * runs: no database access and no serialisation.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+    private final CatalogueVersions versions;
+    private final Set<Aggregate> aggregates;
+    private final String cacheControl;
+    private final boolean variesByRole;
+
+    /**
+     * @param variesByRole whether admins get a different representation (archived products)
+     */
+    public ConditionalGetInterceptor(CatalogueVersions versions, Set<Aggregate> aggregates, String cacheControl,
+                                     boolean variesByRole) {
+        this.versions = versions;
+        this.aggregates = aggregates;
+        this.cacheControl = cacheControl;
+        this.variesByRole = variesByRole;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        // Read the versions before the handler reads the data, so a tag never labels older data than its own
+        String etag = versions.etag(aggregates);
+        if (variesByRole) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+            if (isAdmin()) {
+                etag += "-admin";
+            }
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+
+        return !new ServletWebRequest(request, response).checkNotModified(etag, versions.lastModified(aggregates));
+    }
+
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ADMIN"));
+    }
+}
@@ -2,10 +2,13 @@ package org.example.api.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.api.dto.ProductDTO;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import java.util.Set;
+
 @Configuration
 public class JacksonConfig {
 
@@ -14,6 +17,8 @@ public class JacksonConfig {
     public ObjectMapper objectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
+        // Products are written whole unless a request narrows them with fields=
+        objectMapper.setFilterProvider(ProductDTO.fieldsFilter(Set.of()));
         return objectMapper;
     }
 }
\ No newline at end of file
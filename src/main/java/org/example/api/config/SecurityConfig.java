@@ -89,6 +89,7 @@ public class SecurityConfig {
 */
 package org.example.api.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.example.api.security.GuestAccessDeniedHandler;
 import org.example.api.security.jwt.AuthEntryPointJwt;
@@ -151,6 +152,10 @@ public class SecurityConfig {
                         .accessDeniedHandler(guestAccessDeniedHandler)) // Add this line
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses (the NDJSON progress of the bulk product import, the order
+                        // export) end with an async dispatch of the request that was already authorized;
+                        // the token filter does not run again for it
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         // Make GET endpoints for categories, colors, sizes and product public
                         .requestMatchers(HttpMethod.GET, "/api/colors/**").permitAll()
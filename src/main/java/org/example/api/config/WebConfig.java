@@ -0,0 +1,48 @@
+package org.example.api.config;
+
+import lombok.RequiredArgsConstructor;
+import org.example.api.service.catalogue.CatalogueVersions;
+import org.example.api.service.catalogue.CatalogueVersions.Aggregate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumSet;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final CatalogueVersions catalogueVersions;
+
+    @Value("${app.http.cache-control.products:no-cache}")
+    private String productsCacheControl;
+
+    @Value("${app.http.cache-control.categories:no-cache}")
+    private String categoriesCacheControl;
+
+    @Value("${app.http.cache-control.colors:no-cache}")
+    private String colorsCacheControl;
+
+    @Value("${app.http.cache-control.sizes:no-cache}")
+    private String sizesCacheControl;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Products embed their category, color and size, so their tag covers all four aggregates
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogueVersions, EnumSet.allOf(Aggregate.class),
+                        productsCacheControl, true))
+                .addPathPatterns("/api/products", "/api/products/**")
+                // The search index is refreshed by its own listener, independently of the version bump
+                .excludePathPatterns("/api/products/search");
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogueVersions, EnumSet.of(Aggregate.CATEGORIES),
+                        categoriesCacheControl, false))
+                .addPathPatterns("/api/categories", "/api/categories/**");
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogueVersions, EnumSet.of(Aggregate.COLORS),
+                        colorsCacheControl, false))
+                .addPathPatterns("/api/colors", "/api/colors/**");
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogueVersions, EnumSet.of(Aggregate.SIZES),
+                        sizesCacheControl, false))
+                .addPathPatterns("/api/sizes", "/api/sizes/**");
+    }
+}
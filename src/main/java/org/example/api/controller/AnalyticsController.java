@@ -2,8 +2,14 @@ package org.example.api.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.example.api.dto.*;
+import org.example.api.exception.InvalidRangeException;
+import org.example.api.payload.request.analytics.AnalyticsRangeRequest;
 import org.example.api.payload.response.DefaultResponse;
+import org.example.api.repository.projection.ProductSales;
 import org.example.api.service.AnalyticsService;
+import org.example.api.service.CacheService;
+import org.example.api.service.DailySalesRollupService;
+import org.example.api.util.AnalyticsRange;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +22,21 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AnalyticsController {
     private final AnalyticsService analyticsService;
+    private final DailySalesRollupService rollupService;
+    private final CacheService cacheService;
+
+    /**
+     * Get every time-range metric of the analytics page in one call
+     */
+    @GetMapping("/snapshot")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
+    public ResponseEntity<DefaultResponse<AnalyticsSnapshotDTO>> getSnapshot(
+            AnalyticsRangeRequest rangeRequest) {
+        AnalyticsSnapshotDTO snapshot = analyticsService.getSnapshot(resolveRange(rangeRequest));
+        return ResponseEntity.ok(
+                new DefaultResponse<>("Analytics snapshot retrieved successfully", true, snapshot)
+        );
+    }
 
     /**
      * Get revenue and order trends over time
@@ -23,8 +44,8 @@ public class AnalyticsController {
     @GetMapping("/revenue-trends")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
     public ResponseEntity<DefaultResponse<List<RevenueTrendDTO>>> getRevenueTrends(
-            @RequestParam String timeRange) {
-        List<RevenueTrendDTO> trends = analyticsService.getRevenueTrends(timeRange);
+            AnalyticsRangeRequest rangeRequest) {
+        List<RevenueTrendDTO> trends = analyticsService.getRevenueTrends(resolveRange(rangeRequest));
         return ResponseEntity.ok(
                 new DefaultResponse<>("Revenue trends retrieved successfully", true, trends)
         );
@@ -36,8 +57,8 @@ public class AnalyticsController {
     @GetMapping("/category-performance")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
     public ResponseEntity<DefaultResponse<List<CategoryPerformanceDTO>>> getCategoryPerformance(
-            @RequestParam String timeRange) {
-        List<CategoryPerformanceDTO> performance = analyticsService.getCategoryPerformance(timeRange);
+            AnalyticsRangeRequest rangeRequest) {
+        List<CategoryPerformanceDTO> performance = analyticsService.getCategoryPerformance(resolveRange(rangeRequest));
         return ResponseEntity.ok(
                 new DefaultResponse<>("Category performance retrieved successfully", true, performance)
         );
@@ -49,21 +70,36 @@ public class AnalyticsController {
     @GetMapping("/order-status")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
     public ResponseEntity<DefaultResponse<List<OrderStatusDTO>>> getOrderStatusDistribution(
-            @RequestParam String timeRange) {
-        List<OrderStatusDTO> statuses = analyticsService.getOrderStatusDistribution(timeRange);
+            AnalyticsRangeRequest rangeRequest) {
+        List<OrderStatusDTO> statuses = analyticsService.getOrderStatusDistribution(resolveRange(rangeRequest));
         return ResponseEntity.ok(
                 new DefaultResponse<>("Order status distribution retrieved successfully", true, statuses)
         );
     }
 
     /**
-     * Get top selling products
+     * Get the k top selling products, ranked by units sold or revenue
      */
     @GetMapping("/top-products")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
     public ResponseEntity<DefaultResponse<List<TopProductDTO>>> getTopSellingProducts(
-            @RequestParam String timeRange) {
-        List<TopProductDTO> products = analyticsService.getTopSellingProducts(timeRange);
+            AnalyticsRangeRequest rangeRequest,
+            @RequestParam(defaultValue = "" + AnalyticsService.DEFAULT_TOP_PRODUCTS) int k,
+            @RequestParam(defaultValue = "units") String metric) {
+        if (k < 1 || k > AnalyticsService.MAX_TOP_PRODUCTS) {
+            return ResponseEntity.badRequest()
+                    .body(new DefaultResponse<>("k must be between 1 and " + AnalyticsService.MAX_TOP_PRODUCTS, false, null));
+        }
+
+        ProductSales.Metric rankBy;
+        try {
+            rankBy = ProductSales.Metric.valueOf(metric.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new DefaultResponse<>("metric must be units or revenue", false, null));
+        }
+
+        List<TopProductDTO> products = analyticsService.getTopSellingProducts(resolveRange(rangeRequest), k, rankBy);
         return ResponseEntity.ok(
                 new DefaultResponse<>("Top selling products retrieved successfully", true, products)
         );
@@ -75,8 +111,8 @@ public class AnalyticsController {
     @GetMapping("/customer-segmentation")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
     public ResponseEntity<DefaultResponse<List<CustomerSegmentDTO>>> getCustomerSegmentation(
-            @RequestParam String timeRange) {
-        List<CustomerSegmentDTO> segmentation = analyticsService.getCustomerSegmentation(timeRange);
+            AnalyticsRangeRequest rangeRequest) {
+        List<CustomerSegmentDTO> segmentation = analyticsService.getCustomerSegmentation(resolveRange(rangeRequest));
         return ResponseEntity.ok(
                 new DefaultResponse<>("Customer segmentation retrieved successfully", true, segmentation)
         );
@@ -101,10 +137,48 @@ public class AnalyticsController {
     @GetMapping("/sales-by-day")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
     public ResponseEntity<DefaultResponse<List<SalesByDayDTO>>> getSalesByDayOfWeek(
-            @RequestParam String timeRange) {
-        List<SalesByDayDTO> salesByDay = analyticsService.getSalesByDayOfWeek(timeRange);
+            AnalyticsRangeRequest rangeRequest) {
+        List<SalesByDayDTO> salesByDay = analyticsService.getSalesByDayOfWeek(resolveRange(rangeRequest));
         return ResponseEntity.ok(
                 new DefaultResponse<>("Sales by day of week retrieved successfully", true, salesByDay)
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Get hit, miss and eviction statistics of the result caches - admin only
+     */
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<DefaultResponse<List<CacheStatsDTO>>> getCacheStats() {
+        List<CacheStatsDTO> stats = cacheService.getStats();
+        return ResponseEntity.ok(
+                new DefaultResponse<>("Cache statistics retrieved successfully", true, stats)
+        );
+    }
+
+    /**
+     * Rebuild the daily sales rollup from the orders table - admin only
+     */
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<DefaultResponse<Void>> rebuildSalesRollup() {
+        rollupService.rebuild();
+        return ResponseEntity.ok(
+                new DefaultResponse<>("Sales rollup rebuilt successfully", true, null)
+        );
+    }
+
+    /**
+     * Invalid range parameters
+     */
+    @ExceptionHandler(InvalidRangeException.class)
+    public ResponseEntity<DefaultResponse<Void>> handleInvalidRange(InvalidRangeException e) {
+        return ResponseEntity.badRequest()
+                .body(new DefaultResponse<>(e.getMessage(), false, null));
+    }
+
+    private AnalyticsRange resolveRange(AnalyticsRangeRequest request) {
+        return analyticsService.resolveRange(request.getTimeRange(), request.getFrom(), request.getTo(),
+                request.getGranularity());
+    }
+}
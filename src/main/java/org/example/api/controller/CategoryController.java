@@ -6,7 +6,9 @@ import org.example.api.dto.CategoryDTO;
 import org.example.api.payload.request.category.CreateCategoryRequest;
 import org.example.api.payload.request.category.UpdateCategoryRequest;
 import org.example.api.payload.response.DefaultResponse;
+import org.example.api.service.CatalogueService;
 import org.example.api.service.CategoryService;
+import org.example.api.service.catalogue.CatalogueRead;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,29 +19,30 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = CatalogueRead.VERSION_HEADER)
 @RestController
 @RequestMapping("/api/categories")
 @RequiredArgsConstructor
 public class CategoryController {
     private final CategoryService categoryService;
+    private final CatalogueService catalogueService;
 
     @GetMapping
     public ResponseEntity<DefaultResponse<List<CategoryDTO>>> getAllCategories() {
-        List<CategoryDTO> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Categories retrieved successfully", true, categories)
-        );
+        CatalogueRead<List<CategoryDTO>> categories = catalogueService.getCategories();
+        return ResponseEntity.ok()
+                .headers(categories.headers())
+                .body(new DefaultResponse<>("Categories retrieved successfully", true, categories.data()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<DefaultResponse<CategoryDTO>> getCategoryById(@PathVariable UUID id) {
-        Optional<CategoryDTO> categoryOpt = categoryService.getCategoryById(id);
+        CatalogueRead<Optional<CategoryDTO>> categoryOpt = catalogueService.getCategory(id);
 
-        if (categoryOpt.isPresent()) {
-            return ResponseEntity.ok(
-                    new DefaultResponse<>("Category retrieved successfully", true, categoryOpt.get())
-            );
+        if (categoryOpt.data().isPresent()) {
+            return ResponseEntity.ok()
+                    .headers(categoryOpt.headers())
+                    .body(new DefaultResponse<>("Category retrieved successfully", true, categoryOpt.data().get()));
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new DefaultResponse<>("Category not found", false, null));
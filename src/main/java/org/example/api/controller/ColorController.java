@@ -6,7 +6,9 @@ import org.example.api.dto.ColorDTO;
 import org.example.api.payload.request.color.CreateColorRequest;
 import org.example.api.payload.request.color.UpdateColorRequest;
 import org.example.api.payload.response.DefaultResponse;
+import org.example.api.service.CatalogueService;
 import org.example.api.service.ColorService;
+import org.example.api.service.catalogue.CatalogueRead;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,29 +19,30 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = CatalogueRead.VERSION_HEADER)
 @RestController
 @RequestMapping("/api/colors")
 @RequiredArgsConstructor
 public class ColorController {
     private final ColorService colorService;
+    private final CatalogueService catalogueService;
 
     @GetMapping
     public ResponseEntity<DefaultResponse<List<ColorDTO>>> getAllColors() {
-        List<ColorDTO> colors = colorService.getAllColors();
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Colors retrieved successfully", true, colors)
-        );
+        CatalogueRead<List<ColorDTO>> colors = catalogueService.getColors();
+        return ResponseEntity.ok()
+                .headers(colors.headers())
+                .body(new DefaultResponse<>("Colors retrieved successfully", true, colors.data()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<DefaultResponse<ColorDTO>> getColorById(@PathVariable UUID id) {
-        Optional<ColorDTO> colorOpt = colorService.getColorById(id);
+        CatalogueRead<Optional<ColorDTO>> colorOpt = catalogueService.getColor(id);
 
-        if (colorOpt.isPresent()) {
-            return ResponseEntity.ok(
-                    new DefaultResponse<>("Color retrieved successfully", true, colorOpt.get())
-            );
+        if (colorOpt.data().isPresent()) {
+            return ResponseEntity.ok()
+                    .headers(colorOpt.headers())
+                    .body(new DefaultResponse<>("Color retrieved successfully", true, colorOpt.data().get()));
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new DefaultResponse<>("Color not found", false, null));
@@ -2,8 +2,11 @@ package org.example.api.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.example.api.dto.*;
+import org.example.api.exception.DashboardUnavailableException;
 import org.example.api.payload.response.DefaultResponse;
+import org.example.api.service.DashboardOverviewService;
 import org.example.api.service.HomeService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +19,19 @@ import java.util.List;
 @RequiredArgsConstructor
 public class HomeController {
     private final HomeService homeService;
+    private final DashboardOverviewService overviewService;
+
+    /**
+     * Get every tile of the dashboard in one call, computed concurrently
+     */
+    @GetMapping("/overview")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
+    public ResponseEntity<DefaultResponse<DashboardOverviewDTO>> getOverview() {
+        DashboardOverviewDTO overview = overviewService.getOverview();
+        return ResponseEntity.ok(
+                new DefaultResponse<>("Dashboard overview retrieved successfully", true, overview)
+        );
+    }
 
     /**
      * Get dashboard summary statistics
@@ -80,4 +96,13 @@ public class HomeController {
                 new DefaultResponse<>("Category sales performance retrieved successfully", true, performance)
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Dashboard workers saturated or too slow
+     */
+    @ExceptionHandler(DashboardUnavailableException.class)
+    public ResponseEntity<DefaultResponse<Void>> handleUnavailable(DashboardUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new DefaultResponse<>(e.getMessage(), false, null));
+    }
+}
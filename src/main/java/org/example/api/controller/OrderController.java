@@ -2,21 +2,34 @@ package org.example.api.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.api.dto.CursorPageDTO;
 import org.example.api.dto.OrderDTO;
+import org.example.api.exception.StockAdjustmentException;
 import org.example.api.model.Order.OrderStatus;
+import org.example.api.payload.request.order.CreateOrderRequest;
+import org.example.api.payload.request.order.OrderPageRequest;
 import org.example.api.payload.request.order.UpdateOrderStatusRequest;
 import org.example.api.payload.response.DefaultResponse;
+import org.example.api.security.services.UserDetailsImpl;
+import org.example.api.service.OrderExportService;
 import org.example.api.service.OrderService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -24,31 +37,82 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
 
     /**
-     * Get all orders - admin only
+     * Get orders, newest first, a page at a time - admin only
      */
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
-    public ResponseEntity<DefaultResponse<List<OrderDTO>>> getAllOrders(
+    public ResponseEntity<DefaultResponse<CursorPageDTO<OrderDTO>>> getAllOrders(
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) OrderStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime endDate) {
-
-        List<OrderDTO> orders;
-
-        if (userId != null || status != null || startDate != null || endDate != null) {
-            orders = orderService.searchOrders(userId, status, startDate, endDate);
-        } else {
-            orders = orderService.getAllOrders();
-        }
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime endDate,
+            OrderPageRequest page) {
 
+        CursorPageDTO<OrderDTO> orders = orderService.findOrders(userId, status, startDate, endDate,
+                orderService.resolvePage(page));
         return ResponseEntity.ok(
                 new DefaultResponse<>("Orders retrieved successfully", true, orders)
         );
     }
 
+    /**
+     * Stream every order matching the filters, oldest first, as CSV (one line per item) or NDJSON (one order
+     * per line). Gzipped when the client accepts it. Runs in constant memory whatever the range.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'GUEST')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime endDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        OrderExportService.Format exportFormat = OrderExportService.Format.parse(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody stream = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                orderExportService.export(exportFormat, userId, status, startDate, endDate, compressed);
+                compressed.finish();
+            } else {
+                orderExportService.export(exportFormat, userId, status, startDate, endDate, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders." + exportFormat.extension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(stream);
+    }
+
+    /**
+     * Place an order for the current user, priced from the products. Answers 409 with the
+     * offending items when any of them cannot be reserved.
+     */
+    @PostMapping
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'USER')")
+    public ResponseEntity<DefaultResponse<?>> createOrder(@Valid @RequestBody CreateOrderRequest createRequest) {
+        try {
+            OrderDTO order = orderService.createOrder(getCurrentUserDetails().getId(), createRequest.getItems());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(new DefaultResponse<>("Order created successfully", true, order));
+        } catch (StockAdjustmentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new DefaultResponse<>(e.getMessage(), false, e.getErrors()));
+        }
+    }
+
     /**
      * Get order by ID
      */
@@ -128,4 +192,15 @@ public class OrderController {
                     .body(new DefaultResponse<>("Order not found", false, null));
         }
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<DefaultResponse<Void>> handleInvalidPage(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .body(new DefaultResponse<>(e.getMessage(), false, null));
+    }
+
+    private UserDetailsImpl getCurrentUserDetails() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (UserDetailsImpl) authentication.getPrincipal();
+    }
 }
\ No newline at end of file
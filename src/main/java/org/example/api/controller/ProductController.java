@@ -1,84 +1,145 @@
 package org.example.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.api.dto.*;
+import org.example.api.exception.ProductNotFoundException;
+import org.example.api.exception.StockAdjustmentException;
 import org.example.api.model.ProductImage;
+import org.example.api.payload.request.product.BulkProductRow;
 import org.example.api.payload.request.product.CreateProductRequest;
+import org.example.api.payload.request.product.ProductPageRequest;
+import org.example.api.payload.request.product.StockAdjustmentRequest;
 import org.example.api.payload.request.product.UpdateProductRequest;
 import org.example.api.payload.response.DefaultResponse;
-import org.example.api.repository.ProductRepository;
+import org.example.api.service.CatalogueService;
 import org.example.api.service.ProductImageService;
+import org.example.api.service.ProductImportService;
+import org.example.api.service.ProductSearchService;
 import org.example.api.service.ProductService;
+import org.example.api.service.StockService;
+import org.example.api.service.catalogue.CatalogueRead;
+import org.example.api.service.catalogue.ProductFilter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = CatalogueRead.VERSION_HEADER)
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
     private final ProductImageService productImageService;
-    private final ProductRepository productRepository;
+    private final ProductSearchService productSearchService;
+    private final CatalogueService catalogueService;
+    private final ProductImportService productImportService;
+    private final StockService stockService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<DefaultResponse<List<ProductDTO>>> getAllProducts(
+    public ResponseEntity<DefaultResponse<CursorPageDTO<ProductDTO>>> getAllProducts(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) UUID categoryId,
             @RequestParam(required = false) UUID colorId,
             @RequestParam(required = false) UUID sizeId,
             @RequestParam(required = false) Boolean archived,
             @RequestParam(required = false) Boolean featured,
+            ProductPageRequest page,
             Authentication authentication) {
 
-        // Check if user is admin
-        boolean isAdmin = authentication != null && authentication.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ADMIN"));
+        // If user is not admin, force archived=false
+        if (!isAdmin(authentication) && archived == null) {
+            archived = false;
+        }
+
+        // Process query with filters (admins without filters see every product)
+        CatalogueRead<CursorPageDTO<ProductDTO>> products = catalogueService.findProducts(
+                name, categoryId, colorId, sizeId, archived, featured, page);
+
+        return ResponseEntity.ok()
+                .headers(products.headers())
+                .body(new DefaultResponse<>("Products retrieved successfully", true, products.data()));
+    }
+
+    /**
+     * Filtered products with facet counts for categories, colors, sizes and flags. Several values of one
+     * attribute match any of them; archived products are only listed for admins unless asked for.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<DefaultResponse<ProductFacetsDTO>> getProductFacets(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Set<UUID> categoryId,
+            @RequestParam(required = false) Set<UUID> colorId,
+            @RequestParam(required = false) Set<UUID> sizeId,
+            @RequestParam(required = false) Boolean archived,
+            @RequestParam(required = false) Boolean featured,
+            ProductPageRequest page,
+            Authentication authentication) {
 
         // If user is not admin, force archived=false
-        if (!isAdmin && archived == null) {
+        if (!isAdmin(authentication) && archived == null) {
             archived = false;
         }
 
-        // Process query with filters
-        List<ProductDTO> products;
-        if (name != null || categoryId != null || colorId != null || sizeId != null ||
-                featured != null || archived != null) {
-            products = productService.searchProducts(name, categoryId, colorId, sizeId, archived, featured);
-        } else {
-            // No filters provided
-            if (isAdmin) {
-                products = productService.getAllProducts();
-            } else {
-                products = productService.getActiveProducts(); // Non-archived products only
-            }
+        ProductFilter filter = new ProductFilter(name, orEmpty(categoryId), orEmpty(colorId), orEmpty(sizeId),
+                archived, featured);
+        CatalogueRead<ProductFacetsDTO> facets = catalogueService.findProductsWithFacets(filter, page);
+        return ResponseEntity.ok()
+                .headers(facets.headers())
+                .body(new DefaultResponse<>("Products retrieved successfully", true, facets.data()));
+    }
+
+    /**
+     * Full-text product search, tolerant to typos; archived products are only found by admins
+     */
+    @GetMapping("/search")
+    public ResponseEntity<DefaultResponse<List<ProductSearchResultDTO>>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + ProductSearchService.DEFAULT_RESULTS) int limit,
+            Authentication authentication) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest()
+                    .body(new DefaultResponse<>("q must not be blank", false, null));
+        }
+        if (limit < 1 || limit > ProductSearchService.MAX_RESULTS) {
+            return ResponseEntity.badRequest()
+                    .body(new DefaultResponse<>("limit must be between 1 and " + ProductSearchService.MAX_RESULTS, false, null));
         }
 
+        List<ProductSearchResultDTO> results = productSearchService.search(q, limit, isAdmin(authentication));
         return ResponseEntity.ok(
-                new DefaultResponse<>("Products retrieved successfully", true, products)
+                new DefaultResponse<>("Products retrieved successfully", true, results)
         );
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<DefaultResponse<ProductDTO>> getProductById(@PathVariable UUID id) {
-        Optional<ProductDTO> productOpt = productService.getProductById(id);
+        CatalogueRead<Optional<ProductDTO>> productOpt = catalogueService.getProduct(id);
 
-        if (productOpt.isPresent()) {
-            return ResponseEntity.ok(
-                    new DefaultResponse<>("Product retrieved successfully", true, productOpt.get())
-            );
+        if (productOpt.data().isPresent()) {
+            return ResponseEntity.ok()
+                    .headers(productOpt.headers())
+                    .body(new DefaultResponse<>("Product retrieved successfully", true, productOpt.data().get()));
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new DefaultResponse<>("Product not found", false, null));
@@ -86,43 +147,51 @@ public class ProductController {
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<DefaultResponse<List<ProductDTO>>> getProductsByCategory(@PathVariable UUID categoryId) {
-        List<ProductDTO> products = productService.findByCategoryId(categoryId);
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Products retrieved successfully", true, products)
-        );
+    public ResponseEntity<DefaultResponse<CursorPageDTO<ProductDTO>>> getProductsByCategory(
+            @PathVariable UUID categoryId, ProductPageRequest page) {
+        CatalogueRead<CursorPageDTO<ProductDTO>> products = catalogueService.findProducts(
+                null, categoryId, null, null, null, null, page);
+        return ResponseEntity.ok()
+                .headers(products.headers())
+                .body(new DefaultResponse<>("Products retrieved successfully", true, products.data()));
     }
 
     @GetMapping("/color/{colorId}")
-    public ResponseEntity<DefaultResponse<List<ProductDTO>>> getProductsByColor(@PathVariable UUID colorId) {
-        List<ProductDTO> products = productService.findByColorId(colorId);
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Products retrieved successfully", true, products)
-        );
+    public ResponseEntity<DefaultResponse<CursorPageDTO<ProductDTO>>> getProductsByColor(
+            @PathVariable UUID colorId, ProductPageRequest page) {
+        CatalogueRead<CursorPageDTO<ProductDTO>> products = catalogueService.findProducts(
+                null, null, colorId, null, null, null, page);
+        return ResponseEntity.ok()
+                .headers(products.headers())
+                .body(new DefaultResponse<>("Products retrieved successfully", true, products.data()));
     }
 
     @GetMapping("/size/{sizeId}")
-    public ResponseEntity<DefaultResponse<List<ProductDTO>>> getProductsBySize(@PathVariable UUID sizeId) {
-        List<ProductDTO> products = productService.findBySizeId(sizeId);
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Products retrieved successfully", true, products)
-        );
+    public ResponseEntity<DefaultResponse<CursorPageDTO<ProductDTO>>> getProductsBySize(
+            @PathVariable UUID sizeId, ProductPageRequest page) {
+        CatalogueRead<CursorPageDTO<ProductDTO>> products = catalogueService.findProducts(
+                null, null, null, sizeId, null, null, page);
+        return ResponseEntity.ok()
+                .headers(products.headers())
+                .body(new DefaultResponse<>("Products retrieved successfully", true, products.data()));
     }
 
     @GetMapping("/active")
-    public ResponseEntity<DefaultResponse<List<ProductDTO>>> getActiveProducts() {
-        List<ProductDTO> products = productService.getActiveProducts();
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Active products retrieved successfully", true, products)
-        );
+    public ResponseEntity<DefaultResponse<CursorPageDTO<ProductDTO>>> getActiveProducts(ProductPageRequest page) {
+        CatalogueRead<CursorPageDTO<ProductDTO>> products = catalogueService.findProducts(
+                null, null, null, null, false, null, page);
+        return ResponseEntity.ok()
+                .headers(products.headers())
+                .body(new DefaultResponse<>("Active products retrieved successfully", true, products.data()));
     }
 
     @GetMapping("/featured")
-    public ResponseEntity<DefaultResponse<List<ProductDTO>>> getFeaturedProducts() {
-        List<ProductDTO> products = productService.getFeaturedProducts();
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Featured products retrieved successfully", true, products)
-        );
+    public ResponseEntity<DefaultResponse<CursorPageDTO<ProductDTO>>> getFeaturedProducts(ProductPageRequest page) {
+        CatalogueRead<CursorPageDTO<ProductDTO>> products = catalogueService.findProducts(
+                null, null, null, null, null, true, page);
+        return ResponseEntity.ok()
+                .headers(products.headers())
+                .body(new DefaultResponse<>("Featured products retrieved successfully", true, products.data()));
     }
 
     @PostMapping
@@ -163,19 +232,68 @@ public class ProductController {
                 .body(new DefaultResponse<>("Product created successfully", true, savedProduct));
     }
 
+    /**
+     * Create or update products from a JSON array or a CSV file of {@link BulkProductRow}s; invalid rows are
+     * reported and skipped. With {@code Accept: application/x-ndjson} a progress line is streamed after every
+     * batch and the last line holds the final counts; otherwise the final counts come as one response.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            InputStream body) throws IOException {
+        Iterator<Map<String, Object>> rows = MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                ? productImportService.readJson(body)
+                : productImportService.readCsv(body);
+        boolean progressLines = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+
+        StreamingResponseBody stream = out -> {
+            BulkImportResultDTO result = productImportService.importProducts(rows, progress -> {
+                if (progressLines) {
+                    writeLine(out, progress);
+                }
+            });
+            if (progressLines) {
+                writeLine(out, result);
+            } else {
+                out.write(objectMapper.writeValueAsBytes(
+                        new DefaultResponse<>("Products imported", result.getFailed() == 0, result)));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(progressLines ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(stream);
+    }
+
+    /**
+     * Apply relative stock changes to many products at once, all or none. A rejected batch returns 409
+     * with the products that could not be adjusted.
+     */
+    @PostMapping("/stock-adjustments")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<DefaultResponse<?>> adjustStock(@Valid @RequestBody StockAdjustmentRequest request) {
+        try {
+            List<StockLevelDTO> levels = stockService.adjust(request.getAdjustments());
+            return ResponseEntity.ok(
+                    new DefaultResponse<>("Stock adjusted successfully", true, levels)
+            );
+        } catch (StockAdjustmentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new DefaultResponse<>(e.getMessage(), false, e.getErrors()));
+        }
+    }
+
     @PatchMapping("/{id}")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<DefaultResponse<ProductDTO>> updateProduct(
             @PathVariable UUID id,
             @Valid @RequestBody UpdateProductRequest updateRequest) {
 
-        Optional<ProductDTO> productOpt = productService.getProductById(id);
-        if (productOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new DefaultResponse<>("Product not found", false, null));
-        }
-
-        ProductDTO productDTO = productOpt.get();
+        // The service loads the product once and applies only the fields set here
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setId(id);
+        productDTO.setVersion(updateRequest.getVersion());
 
         // Update only provided fields
         if (updateRequest.getName() != null) {
@@ -220,10 +338,15 @@ public class ProductController {
             productDTO.setSize(sizeDTO);
         }
 
-        ProductDTO updatedProduct = productService.updateProduct(productDTO);
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Product updated successfully", true, updatedProduct)
-        );
+        try {
+            ProductDTO updatedProduct = productService.updateProduct(productDTO);
+            return ResponseEntity.ok(
+                    new DefaultResponse<>("Product updated successfully", true, updatedProduct)
+            );
+        } catch (ProductNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new DefaultResponse<>(e.getMessage(), false, null));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -287,12 +410,6 @@ public class ProductController {
             @RequestParam("files") List<MultipartFile> files) {
 
         try {
-            // Check if product exists
-            if (!productRepository.existsById(id)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(new DefaultResponse<>("Product not found", false, null));
-            }
-
             // Upload images
             List<ProductImage> images = productImageService.addImagesToProduct(id, files);
 
@@ -304,6 +421,9 @@ public class ProductController {
             return ResponseEntity.ok(
                     new DefaultResponse<>("Images uploaded successfully", true, imageDTOs)
             );
+        } catch (ProductNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new DefaultResponse<>(e.getMessage(), false, null));
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new DefaultResponse<>("Failed to upload images: " + e.getMessage(), false, null));
@@ -342,4 +462,31 @@ public class ProductController {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Invalid pagination parameters, fields or import input
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<DefaultResponse<Void>> handleInvalidPage(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .body(new DefaultResponse<>(e.getMessage(), false, null));
+    }
+
+    private static Set<UUID> orEmpty(Set<UUID> ids) {
+        return ids != null ? ids : Set.of();
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ADMIN"));
+    }
+}
@@ -6,7 +6,9 @@ import org.example.api.dto.SizeDTO;
 import org.example.api.payload.request.size.CreateSizeRequest;
 import org.example.api.payload.request.size.UpdateSizeRequest;
 import org.example.api.payload.response.DefaultResponse;
+import org.example.api.service.CatalogueService;
 import org.example.api.service.SizeService;
+import org.example.api.service.catalogue.CatalogueRead;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,29 +19,30 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = CatalogueRead.VERSION_HEADER)
 @RestController
 @RequestMapping("/api/sizes")
 @RequiredArgsConstructor
 public class SizeController {
     private final SizeService sizeService;
+    private final CatalogueService catalogueService;
 
     @GetMapping
     public ResponseEntity<DefaultResponse<List<SizeDTO>>> getAllSizes() {
-        List<SizeDTO> sizes = sizeService.getAllSizes();
-        return ResponseEntity.ok(
-                new DefaultResponse<>("Sizes retrieved successfully", true, sizes)
-        );
+        CatalogueRead<List<SizeDTO>> sizes = catalogueService.getSizes();
+        return ResponseEntity.ok()
+                .headers(sizes.headers())
+                .body(new DefaultResponse<>("Sizes retrieved successfully", true, sizes.data()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<DefaultResponse<SizeDTO>> getSizeById(@PathVariable UUID id) {
-        Optional<SizeDTO> sizeOpt = sizeService.getSizeById(id);
+        CatalogueRead<Optional<SizeDTO>> sizeOpt = catalogueService.getSize(id);
 
-        if (sizeOpt.isPresent()) {
-            return ResponseEntity.ok(
-                    new DefaultResponse<>("Size retrieved successfully", true, sizeOpt.get())
-            );
+        if (sizeOpt.data().isPresent()) {
+            return ResponseEntity.ok()
+                    .headers(sizeOpt.headers())
+                    .body(new DefaultResponse<>("Size retrieved successfully", true, sizeOpt.data().get()));
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new DefaultResponse<>("Size not found", false, null));
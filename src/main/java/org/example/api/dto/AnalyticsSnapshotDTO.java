@@ -0,0 +1,23 @@
+package org.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsSnapshotDTO {
+    private ZonedDateTime from;
+    private ZonedDateTime to;
+    private String granularity;
+    private List<RevenueTrendDTO> revenueTrends;
+    private List<CategoryPerformanceDTO> categoryPerformance;
+    private List<OrderStatusDTO> orderStatus;
+    private List<TopProductDTO> topProducts;
+    private List<CustomerSegmentDTO> customerSegmentation;
+    private List<SalesByDayDTO> salesByDay;
+}
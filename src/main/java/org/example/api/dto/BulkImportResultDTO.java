@@ -0,0 +1,22 @@
+package org.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import: row counts and the rows that were rejected, by row number
+ * (1 for the first data row)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDTO {
+    private int processed;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private List<BulkImportErrorDTO> errors;
+}
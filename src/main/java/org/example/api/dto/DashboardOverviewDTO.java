@@ -0,0 +1,18 @@
+package org.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardOverviewDTO {
+    private DashboardSummaryDTO summary;
+    private List<MonthlyRevenueDTO> monthlyRevenue;
+    private List<RecentOrderDTO> recentOrders;
+    private List<InventoryAlertDTO> inventoryAlert;
+    private List<CategorySalesDTO> categoryPerformance;
+}
@@ -31,6 +31,10 @@ public class OrderDTO {
                         .collect(Collectors.toList()) :
                 null;
 
+        return fromEntity(order, itemDTOs);
+    }
+
+    public static OrderDTO fromEntity(Order order, List<OrderItemDTO> itemDTOs) {
         return new OrderDTO(
                 order.getId(),
                 order.getUser().getId(),
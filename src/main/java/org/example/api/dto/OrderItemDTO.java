@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.example.api.model.OrderItem;
+import org.example.api.repository.projection.OrderItemRow;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -20,13 +21,31 @@ public class OrderItemDTO {
     private BigDecimal subtotal;
 
     public static OrderItemDTO fromEntity(OrderItem item) {
+        return fromEntity(item, item.getProduct().getName());
+    }
+
+    /**
+     * For an item whose product name is already known, without loading the product
+     */
+    public static OrderItemDTO fromEntity(OrderItem item, String productName) {
         return new OrderItemDTO(
                 item.getId(),
                 item.getProduct().getId(),
-                item.getProduct().getName(),
+                productName,
                 item.getQuantity(),
                 item.getUnitPrice(),
                 item.getUnitPrice().multiply(new BigDecimal(item.getQuantity()))
         );
     }
-}
\ No newline at end of file
+
+    public static OrderItemDTO fromRow(OrderItemRow row) {
+        return new OrderItemDTO(
+                row.getId(),
+                row.getProductId(),
+                row.getProductName(),
+                row.getQuantity(),
+                row.getUnitPrice(),
+                row.getUnitPrice().multiply(new BigDecimal(row.getQuantity()))
+        );
+    }
+}
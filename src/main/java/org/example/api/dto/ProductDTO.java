@@ -1,20 +1,42 @@
 package org.example.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.example.api.model.Product;
+import org.example.api.repository.projection.ProductSummary;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * A product as listed and shown. The {@code fields=} parameter of the product endpoints trims it to the
+ * requested properties through the {@value #FIELDS_FILTER} Jackson filter; lists asking only for
+ * {@link #SUMMARY_FIELDS} are read from the database as a {@link ProductSummary} projection.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(ProductDTO.FIELDS_FILTER)
 public class ProductDTO {
+    public static final String FIELDS_FILTER = "productFields";
+
+    // Properties that come from product columns, plus the thumbnail, which is one scalar subquery
+    public static final Set<String> SUMMARY_FIELDS = Set.of(
+            "id", "name", "price", "stock", "createdAt", "description", "archived", "featured", "thumbnail");
+
+    public static final Set<String> FIELDS = Set.of(
+            "id", "name", "price", "stock", "category", "createdAt", "description", "archived", "featured",
+            "color", "size", "images", "thumbnail", "version");
+
     private UUID id;
     private String name;
     private BigDecimal price;
@@ -27,24 +49,36 @@ public class ProductDTO {
     private ColorDTO color;
     private SizeDTO size;
     private List<ProductImageDTO> images;
+    // Url of the first uploaded image
+    private String thumbnail;
+    // Optimistic lock version; an update carrying it is rejected if the product changed since
+    private Long version;
 
     public static ProductDTO fromEntity(Product product) {
+        return fromEntity(product, null, null, null);
+    }
+
+    /**
+     * Product with the given reference DTOs in place of its category, color and size, so references set
+     * by id are not loaded; a null DTO is taken from the entity
+     */
+    public static ProductDTO fromEntity(Product product, CategoryDTO category, ColorDTO color, SizeDTO size) {
         if (product == null) {
             return null;
         }
 
-        CategoryDTO categoryDTO = null;
-        if (product.getCategory() != null) {
+        CategoryDTO categoryDTO = category;
+        if (categoryDTO == null && product.getCategory() != null) {
             categoryDTO = CategoryDTO.fromEntity(product.getCategory());
         }
 
-        ColorDTO colorDTO = null;
-        if (product.getColor() != null) {
+        ColorDTO colorDTO = color;
+        if (colorDTO == null && product.getColor() != null) {
             colorDTO = ColorDTO.fromEntity(product.getColor());
         }
 
-        SizeDTO sizeDTO = null;
-        if (product.getSize() != null) {
+        SizeDTO sizeDTO = size;
+        if (sizeDTO == null && product.getSize() != null) {
             sizeDTO = SizeDTO.fromEntity(product.getSize());
         }
 
@@ -67,10 +101,58 @@ public class ProductDTO {
                 product.getFeatured(),
                 colorDTO,
                 sizeDTO,
-                imageList
+                imageList,
+                imageList != null ? imageList.get(0).getUrl() : null,
+                product.getVersion()
         );
     }
 
+    /**
+     * A product holding only the columns of a summary; references and images are left null
+     */
+    public static ProductDTO fromSummary(ProductSummary summary) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setId(summary.getId());
+        productDTO.setName(summary.getName());
+        productDTO.setPrice(summary.getPrice());
+        productDTO.setStock(summary.getStock());
+        productDTO.setCreatedAt(summary.getCreatedAt());
+        productDTO.setDescription(summary.getDescription());
+        productDTO.setArchived(summary.getArchived());
+        productDTO.setFeatured(summary.getFeatured());
+        productDTO.setThumbnail(summary.getThumbnail());
+        return productDTO;
+    }
+
+    /**
+     * The properties named in a comma separated fields parameter, empty for every property
+     */
+    public static Set<String> parseFields(String fields) {
+        Set<String> parsed = new LinkedHashSet<>();
+        if (fields == null || fields.isBlank()) {
+            return parsed;
+        }
+
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (!FIELDS.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown field: " + trimmed + ", fields must be among "
+                        + FIELDS.stream().sorted().collect(Collectors.joining(", ")));
+            }
+            parsed.add(trimmed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Filters serialising products with only the given properties, or every property when empty
+     */
+    public static SimpleFilterProvider fieldsFilter(Set<String> fields) {
+        return new SimpleFilterProvider().addFilter(FIELDS_FILTER, fields.isEmpty()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+
     // Method to convert a list of Product entities to DTOs
     public static List<ProductDTO> fromEntities(List<Product> products) {
         if (products == null) {
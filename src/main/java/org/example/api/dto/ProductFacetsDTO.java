@@ -0,0 +1,22 @@
+package org.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of filtered products with, for each facet, the number of products every value would give
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsDTO {
+    private CursorPageDTO<ProductDTO> products;
+    private List<FacetCountDTO> categories;
+    private List<FacetCountDTO> colors;
+    private List<FacetCountDTO> sizes;
+    private List<FacetCountDTO> archived;
+    private List<FacetCountDTO> featured;
+}
@@ -0,0 +1,15 @@
+package org.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    private ProductDTO product;
+    private double score;
+    private String nameHighlight;
+    private String descriptionHighlight;
+}
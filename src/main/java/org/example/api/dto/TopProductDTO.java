@@ -4,10 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TopProductDTO {
     private String name;
     private int sales;
+    private BigDecimal revenue;
 }
\ No newline at end of file
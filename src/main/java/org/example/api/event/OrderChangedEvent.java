@@ -0,0 +1,9 @@
+package org.example.api.event;
+
+import java.util.UUID;
+
+/**
+ * Published when an order is created, updated or deleted
+ */
+public record OrderChangedEvent(UUID orderId) {
+}
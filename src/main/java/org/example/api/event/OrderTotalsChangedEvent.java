@@ -0,0 +1,9 @@
+package org.example.api.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Published when orders are created or deleted, with the change they make to the running totals
+ */
+public record OrderTotalsChangedEvent(BigDecimal revenue, long orders) {
+}
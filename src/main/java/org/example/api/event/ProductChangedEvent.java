@@ -0,0 +1,9 @@
+package org.example.api.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a product is created, updated or deleted
+ */
+public record ProductChangedEvent(UUID productId) {
+}
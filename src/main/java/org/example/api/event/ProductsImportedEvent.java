@@ -0,0 +1,7 @@
+package org.example.api.event;
+
+/**
+ * Published once after a bulk import has written products, in place of one {@link ProductChangedEvent} per row
+ */
+public record ProductsImportedEvent(int inserted, int updated) {
+}
@@ -0,0 +1,10 @@
+package org.example.api.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a category, color or size is created, updated or deleted. The id is null when the change
+ * was made by another instance and only its type is known.
+ */
+public record ReferenceDataChangedEvent(Class<?> type, UUID id) {
+}
@@ -0,0 +1,9 @@
+package org.example.api.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published when the daily sales rollup of days in [from, to) has been re-aggregated from the orders table
+ */
+public record SalesRollupChangedEvent(LocalDate from, LocalDate to) {
+}
@@ -0,0 +1,12 @@
+package org.example.api.event;
+
+import org.example.api.dto.StockLevelDTO;
+
+import java.util.List;
+
+/**
+ * Published when stock adjustments or reservations are applied, with the stock and version each product was
+ * left at. Only stock and version changed, so listeners need not reload the products.
+ */
+public record StockLevelsChangedEvent(List<StockLevelDTO> levels) {
+}
@@ -0,0 +1,10 @@
+package org.example.api.exception;
+
+/**
+ * The dashboard could not be built in time, because its workers are saturated or a tile is too slow
+ */
+public class DashboardUnavailableException extends RuntimeException {
+    public DashboardUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.api.exception;
+
+/**
+ * The range parameters of an analytics request do not describe a usable range
+ */
+public class InvalidRangeException extends RuntimeException {
+    public InvalidRangeException(String message) {
+        super(message);
+    }
+}
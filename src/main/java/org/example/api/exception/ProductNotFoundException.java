@@ -0,0 +1,10 @@
+package org.example.api.exception;
+
+/**
+ * No product has the requested id
+ */
+public class ProductNotFoundException extends RuntimeException {
+    public ProductNotFoundException() {
+        super("Product not found");
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.api.exception;
+
+import lombok.Getter;
+import org.example.api.dto.StockAdjustmentErrorDTO;
+
+import java.util.List;
+
+/**
+ * Some stock changes of a batch could not be applied, so none of them were
+ */
+@Getter
+public class StockAdjustmentException extends RuntimeException {
+    private final List<StockAdjustmentErrorDTO> errors;
+
+    public StockAdjustmentException(String message, List<StockAdjustmentErrorDTO> errors) {
+        super(message);
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Last persisted fingerprint of a catalogue aggregate and when it was first seen, shared by every
+ * instance so they all answer with the same Last-Modified
+ */
+@Data
+@Entity
+@Table(name = "catalogue_version")
+public class CatalogueVersion {
+    @Id
+    @Column(name = "aggregate", updatable = false, nullable = false)
+    private String aggregate;
+
+    @Column(name = "stamp", nullable = false)
+    private String stamp;
+
+    @Column(name = "changed_at", nullable = false)
+    private ZonedDateTime changedAt;
+}
@@ -24,6 +24,11 @@ public class Category {
     @Column(name = "created_at", nullable = false)
     private ZonedDateTime createdAt;
 
+    // Bumped by every update, so other instances can tell the row changed
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @OneToMany(mappedBy = "category")
     private List<Product> products;
 
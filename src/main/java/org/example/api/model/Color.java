@@ -23,6 +23,11 @@ public class Color {
     @Column(name = "created_at", nullable = false)
     private ZonedDateTime createdAt;
 
+    // Bumped by every update, so other instances can tell the row changed
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @Column(name = "value")
     private String value;
 
@@ -0,0 +1,30 @@
+package org.example.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Index of each customer's first ever order, used to tell new customers from returning ones
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "customer_first_order")
+public class CustomerFirstOrder {
+
+    @Id
+    @Column(name = "user_id", updatable = false, nullable = false)
+    private UUID userId;
+
+    @Column(name = "first_order_id", nullable = false)
+    private UUID firstOrderId;
+
+    @Column(name = "first_order_at", nullable = false)
+    private ZonedDateTime firstOrderAt;
+}
@@ -0,0 +1,55 @@
+package org.example.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.api.model.Order.OrderStatus;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Pre-aggregated sales for one day and order status.
+ * Rows without a product hold order-level totals (sum of order totals, number of orders);
+ * rows with a product hold that product's item revenue, units sold and number of order lines.
+ * The product's category is not stored: reads join the product's current category, so a product moved
+ * to another category takes its sales with it.
+ * There is at most one row per day, status and product; the unique indexes on that key are partial
+ * (product_id is null on order-level rows) and created on startup by the repository.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "daily_sales_rollup", indexes = {
+        @Index(name = "idx_daily_sales_rollup_date", columnList = "sales_date"),
+        @Index(name = "idx_daily_sales_rollup_product", columnList = "product_id, sales_date")
+})
+public class DailySalesRollup {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderStatus status;
+
+    @Column(name = "revenue", nullable = false)
+    private BigDecimal revenue;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+}
@@ -0,0 +1,30 @@
+package org.example.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * Running order totals for the dashboard summary, stored as a single row
+ */
+@Data
+@Entity
+@Table(name = "dashboard_counters")
+public class DashboardCounters {
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private Integer id;
+
+    @Column(name = "total_revenue", nullable = false)
+    private BigDecimal totalRevenue;
+
+    @Column(name = "total_orders", nullable = false)
+    private long totalOrders;
+
+    @Column(name = "reconciled_at")
+    private ZonedDateTime reconciledAt;
+}
@@ -11,7 +11,10 @@ import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_orders_user_created_at", columnList = "user_id, created_at, id")
+})
 public class Order {
 
     @Id
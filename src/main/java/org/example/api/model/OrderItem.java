@@ -10,7 +10,9 @@ import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order_id", columnList = "order_id, created_at, id")
+})
 public class OrderItem {
 
     @Id
@@ -2,6 +2,7 @@ package org.example.api.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.GenericGenerator;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -11,7 +12,12 @@ import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_product_price", columnList = "price, id"),
+        @Index(name = "idx_product_name", columnList = "name, id"),
+        @Index(name = "idx_product_stock", columnList = "stock, id")
+})
 public class Product {
 
     @Id
@@ -45,6 +51,11 @@ public class Product {
     @Column(name = "featured", nullable = false)
     private Boolean featured;
 
+    // Bumped by every update, including the set-based stock adjustments
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "color_id")
     private Color color;
@@ -58,6 +69,8 @@ public class Product {
 
     // Add this field to your existing Product class
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @OrderBy("createdAt ASC, id ASC")
     private List<ProductImage> images = new ArrayList<>();
 
 
@@ -25,6 +25,11 @@ public class Size {
     @Column(name = "created_at", nullable = false)
     private ZonedDateTime createdAt;
 
+    // Bumped by every update, so other instances can tell the row changed
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @Column(name = "fullname")
     private String fullname;
 
@@ -0,0 +1,23 @@
+package org.example.api.payload.request.analytics;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Range query parameters of the analytics endpoints: either a preset timeRange
+ * (30days, 3months, 6months, 1year) or from/to, each with an optional granularity (hour, day, week, month)
+ */
+@Data
+public class AnalyticsRangeRequest {
+    private String timeRange;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private ZonedDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private ZonedDateTime to;
+
+    private String granularity;
+}
@@ -0,0 +1,19 @@
+package org.example.api.payload.request.order;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The items of a new order. Prices are not part of the request; they are taken from the products.
+ */
+@Data
+public class CreateOrderRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 100, message = "At most 100 items per order")
+    @Valid
+    private List<CreateOrderItemRequest> items;
+}
@@ -0,0 +1,14 @@
+package org.example.api.payload.request.order;
+
+import lombok.Data;
+
+/**
+ * Pagination parameters of the order listing, newest first: page size, the cursor returned by the
+ * previous page, and whether to count every matching order as well
+ */
+@Data
+public class OrderPageRequest {
+    private String cursor;
+    private Integer limit;
+    private boolean includeTotal;
+}
@@ -0,0 +1,28 @@
+package org.example.api.payload.request.product;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One row of a bulk product import. A row with an id updates that product with its non-null values;
+ * a row without one creates a product and needs a name, price, stock and category. References are
+ * given either by id or by name.
+ */
+@Data
+public class BulkProductRow {
+    private UUID id;
+    private String name;
+    private BigDecimal price;
+    private Integer stock;
+    private String description;
+    private Boolean archived;
+    private Boolean featured;
+    private UUID categoryId;
+    private String category;
+    private UUID colorId;
+    private String color;
+    private UUID sizeId;
+    private String size;
+}
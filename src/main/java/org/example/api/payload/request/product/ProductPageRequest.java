@@ -0,0 +1,17 @@
+package org.example.api.payload.request.product;
+
+import lombok.Data;
+
+/**
+ * Pagination parameters of the product listings: sort (createdAt, price or name), direction (asc or desc),
+ * page size, the cursor returned by the previous page, which carries its own sort order, and the comma
+ * separated product properties to return
+ */
+@Data
+public class ProductPageRequest {
+    private String cursor;
+    private Integer limit;
+    private String sort = "createdAt";
+    private String direction = "desc";
+    private String fields;
+}
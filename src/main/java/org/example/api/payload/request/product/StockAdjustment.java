@@ -0,0 +1,21 @@
+package org.example.api.payload.request.product;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * A relative change to a product's stock. With an expected version the change only applies if the
+ * product is still at that version.
+ */
+@Data
+public class StockAdjustment {
+    @NotNull(message = "Product ID is required")
+    private UUID productId;
+
+    @NotNull(message = "Delta is required")
+    private Integer delta;
+
+    private Long expectedVersion;
+}
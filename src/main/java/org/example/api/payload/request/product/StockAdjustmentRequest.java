@@ -0,0 +1,16 @@
+package org.example.api.payload.request.product;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StockAdjustmentRequest {
+    @NotEmpty(message = "At least one adjustment is required")
+    @Size(max = 1000, message = "At most 1000 adjustments per request")
+    @Valid
+    private List<StockAdjustment> adjustments;
+}
@@ -28,4 +28,7 @@ public class UpdateProductRequest {
     private Boolean featured;
     private UUID colorId;
     private UUID sizeId;
+
+    // Version the client last read; the update is rejected with 409 if the product changed since
+    private Long version;
 }
\ No newline at end of file
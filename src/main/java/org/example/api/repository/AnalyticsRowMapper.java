@@ -0,0 +1,29 @@
+package org.example.api.repository;
+
+import org.example.api.model.Order.OrderStatus;
+import org.example.api.repository.projection.AnalyticsRow;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Shared by the rollup and live analytics reads, which select the same columns
+class AnalyticsRowMapper implements RowMapper<AnalyticsRow> {
+
+    @Override
+    public AnalyticsRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String status = rs.getString("status");
+        return new AnalyticsRow(
+                rs.getObject("period", LocalDateTime.class),
+                status != null ? OrderStatus.valueOf(status) : null,
+                rs.getObject("category_id", UUID.class),
+                rs.getString("category_name"),
+                rs.getObject("product_id", UUID.class),
+                rs.getString("product_name"),
+                rs.getBigDecimal("revenue"),
+                rs.getLong("units"),
+                rs.getLong("order_count"));
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.api.repository;
+
+import org.example.api.model.CatalogueVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CatalogueVersionRepository extends JpaRepository<CatalogueVersion, String> {
+
+    // Record a fingerprint, keeping the time it was first recorded by any instance. A single statement,
+    // so instances seeing the same change concurrently agree on that time.
+    @Modifying
+    @Query(value = "INSERT INTO catalogue_version (aggregate, stamp, changed_at) " +
+            "VALUES (:aggregate, :stamp, now()) " +
+            "ON CONFLICT (aggregate) DO UPDATE SET stamp = EXCLUDED.stamp, changed_at = EXCLUDED.changed_at " +
+            "WHERE catalogue_version.stamp <> EXCLUDED.stamp",
+            nativeQuery = true)
+    int record(@Param("aggregate") String aggregate, @Param("stamp") String stamp);
+}
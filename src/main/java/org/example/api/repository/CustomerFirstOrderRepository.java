@@ -0,0 +1,52 @@
+package org.example.api.repository;
+
+import org.example.api.model.CustomerFirstOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+public interface CustomerFirstOrderRepository extends JpaRepository<CustomerFirstOrder, UUID> {
+
+    // Record an order as the customer's first unless an earlier one is recorded. A single statement, so two
+    // concurrent first orders of a customer cannot both insert the entry.
+    @Modifying
+    @Query(value = "INSERT INTO customer_first_order (user_id, first_order_id, first_order_at) " +
+            "VALUES (:userId, :orderId, :orderAt) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "first_order_id = EXCLUDED.first_order_id, first_order_at = EXCLUDED.first_order_at " +
+            "WHERE EXCLUDED.first_order_at < customer_first_order.first_order_at",
+            nativeQuery = true)
+    int recordIfEarlier(
+            @Param("userId") UUID userId,
+            @Param("orderId") UUID orderId,
+            @Param("orderAt") ZonedDateTime orderAt
+    );
+
+    // Index the earliest order of each customer among the orders created since the given time, keeping an
+    // earlier entry. One statement, aggregated by the database.
+    @Modifying
+    @Query(value = "INSERT INTO customer_first_order (user_id, first_order_id, first_order_at) " +
+            "SELECT DISTINCT ON (user_id) user_id, id, created_at FROM orders " +
+            "WHERE created_at >= :since " +
+            "ORDER BY user_id, created_at, id " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "first_order_id = EXCLUDED.first_order_id, first_order_at = EXCLUDED.first_order_at " +
+            "WHERE EXCLUDED.first_order_at < customer_first_order.first_order_at",
+            nativeQuery = true)
+    int recordFirstOrdersSince(@Param("since") ZonedDateTime since);
+
+    // Index the earliest order of every customer, over all orders
+    @Modifying
+    @Query(value = "INSERT INTO customer_first_order (user_id, first_order_id, first_order_at) " +
+            "SELECT DISTINCT ON (user_id) user_id, id, created_at FROM orders " +
+            "ORDER BY user_id, created_at, id " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "first_order_id = EXCLUDED.first_order_id, first_order_at = EXCLUDED.first_order_at " +
+            "WHERE EXCLUDED.first_order_at < customer_first_order.first_order_at",
+            nativeQuery = true)
+    int recordAllFirstOrders();
+}
@@ -0,0 +1,138 @@
+package org.example.api.repository;
+
+import org.example.api.model.DailySalesRollup;
+import org.example.api.model.Order.OrderStatus;
+import org.example.api.repository.projection.CategorySales;
+import org.example.api.repository.projection.DailyOrderTotals;
+import org.example.api.repository.projection.ProductSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The upserts are native PostgreSQL: ON CONFLICT on the partial key indexes has no portable equivalent
+ */
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, UUID>, DailySalesRollupRepositoryCustom {
+
+    // Add to the order-level row of a day and status, creating it if needed. A single statement, so two
+    // transactions adding to a missing row cannot both insert it.
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollup (id, sales_date, product_id, status, revenue, units, order_count) " +
+            "VALUES (:id, :salesDate, NULL, :status, :revenue, 0, :orderCount) " +
+            "ON CONFLICT (sales_date, status) WHERE product_id IS NULL DO UPDATE SET " +
+            "revenue = daily_sales_rollup.revenue + EXCLUDED.revenue, " +
+            "order_count = daily_sales_rollup.order_count + EXCLUDED.order_count",
+            nativeQuery = true)
+    int addOrderTotals(
+            @Param("id") UUID id,
+            @Param("salesDate") LocalDate salesDate,
+            @Param("status") String status,
+            @Param("revenue") BigDecimal revenue,
+            @Param("orderCount") long orderCount
+    );
+
+    // Add to the product-level row of a day and status, creating it if needed
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollup (id, sales_date, product_id, status, revenue, units, order_count) " +
+            "VALUES (:id, :salesDate, :productId, :status, :revenue, :units, :orderCount) " +
+            "ON CONFLICT (sales_date, status, product_id) WHERE product_id IS NOT NULL DO UPDATE SET " +
+            "revenue = daily_sales_rollup.revenue + EXCLUDED.revenue, " +
+            "units = daily_sales_rollup.units + EXCLUDED.units, " +
+            "order_count = daily_sales_rollup.order_count + EXCLUDED.order_count",
+            nativeQuery = true)
+    int addProductTotals(
+            @Param("id") UUID id,
+            @Param("salesDate") LocalDate salesDate,
+            @Param("productId") UUID productId,
+            @Param("status") String status,
+            @Param("revenue") BigDecimal revenue,
+            @Param("units") long units,
+            @Param("orderCount") long orderCount
+    );
+
+    // Zero the rows of days in [from, to) before they are recomputed. Rows without orders left are removed
+    // afterwards by deleteEmptyRows.
+    @Modifying
+    @Query("UPDATE DailySalesRollup r SET r.revenue = 0, r.units = 0, r.orderCount = 0 " +
+            "WHERE r.salesDate >= :from AND r.salesDate < :to")
+    int zeroSalesDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Recompute the order-level rows of orders created in [start, end) in one upsert, so rows that
+    // concurrent updates add are overwritten rather than duplicated. Days are taken in the given zone,
+    // not the session's.
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollup (id, sales_date, product_id, status, revenue, units, order_count) " +
+            "SELECT gen_random_uuid(), o.sales_date, NULL, o.status, SUM(o.total), 0, COUNT(*) " +
+            "FROM (SELECT CAST(created_at AT TIME ZONE :zone AS date) AS sales_date, status, total FROM orders " +
+            "WHERE created_at >= :start AND created_at < :end) o " +
+            "GROUP BY o.sales_date, o.status " +
+            "ON CONFLICT (sales_date, status) WHERE product_id IS NULL DO UPDATE SET " +
+            "revenue = EXCLUDED.revenue, units = EXCLUDED.units, order_count = EXCLUDED.order_count",
+            nativeQuery = true)
+    int rollUpOrderTotals(@Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end,
+                          @Param("zone") String zone);
+
+    // Recompute the product-level rows of orders created in [start, end) in one upsert
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollup (id, sales_date, product_id, status, revenue, units, order_count) " +
+            "SELECT gen_random_uuid(), o.sales_date, i.product_id, o.status, " +
+            "SUM(i.unit_price * i.quantity), SUM(i.quantity), COUNT(*) " +
+            "FROM order_items i JOIN (SELECT id, CAST(created_at AT TIME ZONE :zone AS date) AS sales_date, status " +
+            "FROM orders WHERE created_at >= :start AND created_at < :end) o ON o.id = i.order_id " +
+            "GROUP BY o.sales_date, i.product_id, o.status " +
+            "ON CONFLICT (sales_date, status, product_id) WHERE product_id IS NOT NULL DO UPDATE SET " +
+            "revenue = EXCLUDED.revenue, units = EXCLUDED.units, order_count = EXCLUDED.order_count",
+            nativeQuery = true)
+    int rollUpProductTotals(@Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end,
+                            @Param("zone") String zone);
+
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r WHERE r.salesDate >= :from AND r.salesDate < :to AND r.orderCount = 0")
+    int deleteEmptyRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new org.example.api.repository.projection.DailyOrderTotals(" +
+            "r.salesDate, SUM(r.revenue), SUM(r.orderCount)) " +
+            "FROM DailySalesRollup r " +
+            "WHERE r.productId IS NULL AND r.salesDate >= :from AND r.salesDate < :to " +
+            "GROUP BY r.salesDate ORDER BY r.salesDate")
+    List<DailyOrderTotals> sumDailyTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new org.example.api.repository.projection.CategorySales(" +
+            "c.id, c.name, SUM(r.revenue), SUM(r.orderCount)) " +
+            "FROM DailySalesRollup r JOIN Product p ON p.id = r.productId JOIN p.category c " +
+            "WHERE r.productId IS NOT NULL AND r.salesDate >= :from AND r.salesDate < :to " +
+            "GROUP BY c.id, c.name")
+    List<CategorySales> sumSalesByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Best selling products of the range; the pageable only carries the limit
+    @Query("SELECT new org.example.api.repository.projection.ProductSales(" +
+            "p.id, p.name, SUM(r.revenue), SUM(r.units)) " +
+            "FROM DailySalesRollup r JOIN Product p ON p.id = r.productId " +
+            "WHERE r.salesDate >= :from AND r.salesDate < :to " +
+            "GROUP BY p.id, p.name ORDER BY SUM(r.units) DESC, p.name")
+    List<ProductSales> findTopProductsByUnits(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable limit);
+
+    @Query("SELECT new org.example.api.repository.projection.ProductSales(" +
+            "p.id, p.name, SUM(r.revenue), SUM(r.units)) " +
+            "FROM DailySalesRollup r JOIN Product p ON p.id = r.productId " +
+            "WHERE r.salesDate >= :from AND r.salesDate < :to " +
+            "GROUP BY p.id, p.name ORDER BY SUM(r.revenue) DESC, p.name")
+    List<ProductSales> findTopProductsByRevenue(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable limit);
+
+    @Query("SELECT new org.example.api.repository.projection.ProductSales(" +
+            "p.id, p.name, SUM(r.revenue), SUM(r.units)) " +
+            "FROM DailySalesRollup r JOIN Product p ON p.id = r.productId " +
+            "WHERE r.salesDate >= :from AND r.salesDate < :to AND p.id IN :productIds " +
+            "GROUP BY p.id, p.name")
+    List<ProductSales> sumProductSales(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                       @Param("productIds") Collection<UUID> productIds);
+}
\ No newline at end of file
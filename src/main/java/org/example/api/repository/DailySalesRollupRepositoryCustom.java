@@ -0,0 +1,21 @@
+package org.example.api.repository;
+
+import org.example.api.repository.projection.AnalyticsRow;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+public interface DailySalesRollupRepositoryCustom {
+
+    /**
+     * Create the unique indexes on the row key (day, status, product) that the upserts rely on.
+     * The order-level rows have no product, so they get their own partial index.
+     */
+    void createKeyIndexes();
+
+    /**
+     * Visit the analytics rows of the rollup days in [from, to) in one statement: the order totals of
+     * each day and status, then each product's sales summed over the whole range
+     */
+    void forEachAnalyticsRow(LocalDate from, LocalDate to, Consumer<AnalyticsRow> action);
+}
@@ -0,0 +1,42 @@
+package org.example.api.repository;
+
+import org.example.api.repository.projection.AnalyticsRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+public class DailySalesRollupRepositoryCustomImpl implements DailySalesRollupRepositoryCustom {
+    private static final String ANALYTICS_ROWS_SQL =
+            "SELECT CAST(r.sales_date AS timestamp) AS period, r.status, " +
+            "NULL AS category_id, NULL AS category_name, NULL AS product_id, NULL AS product_name, " +
+            "r.revenue, r.units, r.order_count " +
+            "FROM daily_sales_rollup r " +
+            "WHERE r.product_id IS NULL AND r.sales_date >= ? AND r.sales_date < ? " +
+            "UNION ALL " +
+            "SELECT NULL, NULL, c.id, c.name, p.id, p.name, SUM(r.revenue), SUM(r.units), SUM(r.order_count) " +
+            "FROM daily_sales_rollup r JOIN product p ON p.id = r.product_id JOIN category c ON c.id = p.category_id " +
+            "WHERE r.sales_date >= ? AND r.sales_date < ? " +
+            "GROUP BY c.id, c.name, p.id, p.name";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void createKeyIndexes() {
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_daily_sales_rollup_order " +
+                "ON daily_sales_rollup (sales_date, status) WHERE product_id IS NULL");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_daily_sales_rollup_product " +
+                "ON daily_sales_rollup (sales_date, status, product_id) WHERE product_id IS NOT NULL");
+    }
+
+    @Override
+    public void forEachAnalyticsRow(LocalDate from, LocalDate to, Consumer<AnalyticsRow> action) {
+        AnalyticsRowMapper mapper = new AnalyticsRowMapper();
+        jdbcTemplate.query(ANALYTICS_ROWS_SQL, rs -> {
+            action.accept(mapper.mapRow(rs, 0));
+        }, Date.valueOf(from), Date.valueOf(to), Date.valueOf(from), Date.valueOf(to));
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.api.repository;
+
+import org.example.api.model.DashboardCounters;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+public interface DashboardCountersRepository extends JpaRepository<DashboardCounters, Integer> {
+
+    // Atomically add to the running totals; returns 0 if the row does not exist yet
+    @Modifying
+    @Query("UPDATE DashboardCounters c SET c.totalRevenue = c.totalRevenue + :revenue, " +
+            "c.totalOrders = c.totalOrders + :orders WHERE c.id = :id")
+    int increment(@Param("id") Integer id, @Param("revenue") BigDecimal revenue, @Param("orders") long orders);
+
+    // Reset the running totals to the orders table, reading and writing in one statement under the row lock
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DashboardCounters c SET " +
+            "c.totalRevenue = (SELECT COALESCE(SUM(o.total), 0) FROM Order o), " +
+            "c.totalOrders = (SELECT COUNT(o) FROM Order o), " +
+            "c.reconciledAt = :reconciledAt WHERE c.id = :id")
+    int reconcile(@Param("id") Integer id, @Param("reconciledAt") ZonedDateTime reconciledAt);
+}
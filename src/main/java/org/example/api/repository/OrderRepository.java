@@ -2,44 +2,97 @@ package org.example.api.repository;
 
 import org.example.api.model.Order;
 import org.example.api.model.Order.OrderStatus;
+import org.example.api.repository.projection.CategorySales;
+import org.example.api.repository.projection.DailyOrderTotals;
+import org.example.api.repository.projection.ProductSales;
+import org.example.api.repository.projection.OrderItemRow;
+import org.example.api.repository.projection.OrderTotals;
+import org.example.api.util.TimeRange;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.YearMonth;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order>,
+        OrderRepositoryCustom {
+    // One order with its user
+    @EntityGraph(attributePaths = "user")
+    Optional<Order> findWithUserById(UUID id);
+
     // Find orders by user
+    @EntityGraph(attributePaths = "user")
     List<Order> findByUserId(UUID userId);
 
     // Find orders by status
+    @EntityGraph(attributePaths = "user")
     List<Order> findByStatus(OrderStatus status);
 
     // Find orders within a date range
+    @EntityGraph(attributePaths = "user")
     List<Order> findByCreatedAtBetween(ZonedDateTime start, ZonedDateTime end);
 
-    // Find orders created after a specific date
-    List<Order> findByCreatedAtAfter(ZonedDateTime date);
-
-    // Get recent orders - used by HomeService for dashboard
-    List<Order> findTop10ByOrderByCreatedAtDesc();
-
-    // Get orders for a specific month and year
-    @Query("SELECT o FROM Order o WHERE YEAR(o.createdAt) = :year AND MONTH(o.createdAt) = :month")
-    List<Order> findByYearAndMonth(@Param("year") int year, @Param("month") int month);
-
-    // Flexible search with multiple optional filters
-    @Query("SELECT o FROM Order o WHERE " +
-            "(:userId IS NULL OR o.user.id = :userId) AND " +
-            "(:status IS NULL OR o.status = :status) AND " +
-            "(:startDate IS NULL OR o.createdAt >= :startDate) AND " +
-            "(:endDate IS NULL OR o.createdAt <= :endDate)")
-    List<Order> searchOrders(
-            @Param("userId") UUID userId,
-            @Param("status") OrderStatus status,
-            @Param("startDate") ZonedDateTime startDate,
-            @Param("endDate") ZonedDateTime endDate
-    );
+    // Items of several orders with their product names, in one statement
+    @Query("SELECT new org.example.api.repository.projection.OrderItemRow(" +
+            "oi.order.id, oi.id, p.id, p.name, oi.quantity, oi.unitPrice) " +
+            "FROM OrderItem oi JOIN oi.product p " +
+            "WHERE oi.order.id IN :orderIds " +
+            "ORDER BY oi.createdAt, oi.id")
+    List<OrderItemRow> findItemRows(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Latest 5 orders with their user - used by HomeService for dashboard
+    @EntityGraph(attributePaths = "user")
+    List<Order> findTop5ByOrderByCreatedAtDesc();
+
+    // Get orders for a specific month and year, as a range so the created_at index applies
+    default List<Order> findByYearAndMonth(int year, int month) {
+        TimeRange range = TimeRange.ofMonth(YearMonth.of(year, month));
+        return findCreatedWithin(range.start(), range.end());
+    }
+
+    // Orders created in [start, end) with their user
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT o FROM Order o WHERE o.createdAt >= :start AND o.createdAt < :end")
+    List<Order> findCreatedWithin(@Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end);
+
+    // Revenue and order count per day, aggregated in the database
+    @Query("SELECT new org.example.api.repository.projection.DailyOrderTotals(" +
+            "CAST(o.createdAt AS LocalDate), SUM(o.total), COUNT(o)) " +
+            "FROM Order o WHERE o.createdAt >= :start AND o.createdAt < :end " +
+            "GROUP BY CAST(o.createdAt AS LocalDate) " +
+            "ORDER BY CAST(o.createdAt AS LocalDate)")
+    List<DailyOrderTotals> sumDailyTotals(@Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end);
+
+    // Units sold and item revenue per product
+    @Query("SELECT new org.example.api.repository.projection.ProductSales(" +
+            "p.id, p.name, SUM(i.unitPrice * i.quantity), SUM(i.quantity)) " +
+            "FROM OrderItem i JOIN i.order o JOIN i.product p " +
+            "WHERE o.createdAt >= :start AND o.createdAt < :end " +
+            "GROUP BY p.id, p.name")
+    List<ProductSales> sumProductSales(@Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end);
+
+    // Order item revenue per category
+    @Query("SELECT new org.example.api.repository.projection.CategorySales(" +
+            "c.id, c.name, SUM(i.unitPrice * i.quantity), COUNT(i)) " +
+            "FROM OrderItem i JOIN i.order o JOIN i.product p JOIN p.category c " +
+            "WHERE o.createdAt >= :start AND o.createdAt < :end " +
+            "GROUP BY c.id, c.name")
+    List<CategorySales> sumSalesByCategory(@Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end);
+
+    // A customer's earliest order other than the given one
+    Optional<Order> findFirstByUserIdAndIdNotOrderByCreatedAtAsc(UUID userId, UUID excludedOrderId);
+
+    // Revenue and order count over every order, used to reconcile the dashboard counters
+    @Query("SELECT new org.example.api.repository.projection.OrderTotals(SUM(o.total), COUNT(o)) FROM Order o")
+    OrderTotals sumAllTotals();
+
+    // Oldest order, used as the starting point of a full rollup rebuild
+    Optional<Order> findFirstByOrderByCreatedAtAsc();
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package org.example.api.repository;
+
+import org.example.api.model.Order;
+import org.example.api.model.Order.OrderStatus;
+import org.example.api.repository.projection.AnalyticsRow;
+import org.example.api.repository.projection.BucketSegmentCount;
+import org.example.api.repository.projection.OrderExportRow;
+import org.example.api.util.Granularity;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Visit every order created in [start, end), oldest first, through a forward-only cursor.
+     * Rows are fetched in batches of the configured fetch size and the persistence context is
+     * cleared after each batch, so memory use does not grow with the number of orders.
+     * Orders are detached once cleared and must not be kept by the consumer.
+     */
+    void forEachCreatedBetween(ZonedDateTime start, ZonedDateTime end, Consumer<Order> action);
+
+    /**
+     * Visit the items of every order matching the filters (null filters match everything), oldest order
+     * first, with the items of an order next to each other. Rows come straight from a forward-only JDBC
+     * cursor in batches of the configured fetch size; no entity is loaded and nothing is kept once visited.
+     */
+    void forEachExportRow(UUID userId, OrderStatus status, ZonedDateTime startDate, ZonedDateTime endDate,
+                          Consumer<OrderExportRow> action);
+
+    /**
+     * Orders per bucket of [start, end), split by whether they are the customer's first ever order.
+     * Customers not indexed yet in customer_first_order are counted as new.
+     */
+    List<BucketSegmentCount> countCustomerSegmentsByBucket(ZonedDateTime start, ZonedDateTime end, Granularity granularity);
+
+    /**
+     * Visit the analytics rows of the orders created in [start, end) in one statement: the order totals of
+     * each period (day or hour) and status, then each product's item sales summed over the whole range
+     */
+    void forEachAnalyticsRow(ZonedDateTime start, ZonedDateTime end, Granularity period, Consumer<AnalyticsRow> action);
+}
@@ -0,0 +1,180 @@
+package org.example.api.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.api.model.Order;
+import org.example.api.model.Order.OrderStatus;
+import org.example.api.repository.projection.AnalyticsRow;
+import org.example.api.repository.projection.BucketSegmentCount;
+import org.example.api.repository.projection.OrderExportRow;
+import org.example.api.util.Granularity;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.orders.stream.fetch-size:500}")
+    private int fetchSize;
+
+    // A read-only transaction is required for PostgreSQL to use a server-side cursor
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCreatedBetween(ZonedDateTime start, ZonedDateTime end, Consumer<Order> action) {
+        Stream<Order> orders = entityManager.createQuery(
+                        "SELECT o FROM Order o JOIN FETCH o.user " +
+                                "WHERE o.createdAt >= :start AND o.createdAt < :end " +
+                                "ORDER BY o.createdAt", Order.class)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+
+        try (orders) {
+            Iterator<Order> iterator = orders.iterator();
+            int count = 0;
+
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+
+                if (++count % fetchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    // A read-only transaction is required for PostgreSQL to use a server-side cursor
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachExportRow(UUID userId, OrderStatus status, ZonedDateTime startDate, ZonedDateTime endDate,
+                                 Consumer<OrderExportRow> action) {
+        // Only the filters given become predicates
+        List<String> predicates = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (userId != null) {
+            predicates.add("o.user_id = ?");
+            parameters.add(userId);
+        }
+        if (status != null) {
+            predicates.add("o.status = ?");
+            parameters.add(status.name());
+        }
+        if (startDate != null) {
+            predicates.add("o.created_at >= ?");
+            parameters.add(Timestamp.from(startDate.toInstant()));
+        }
+        if (endDate != null) {
+            predicates.add("o.created_at <= ?");
+            parameters.add(Timestamp.from(endDate.toInstant()));
+        }
+
+        String sql = "SELECT o.id AS order_id, o.created_at, o.status, o.total, " +
+                "u.id AS user_id, u.f_name, u.l_name, u.email, " +
+                "oi.id AS item_id, p.id AS product_id, p.name AS product_name, oi.quantity, oi.unit_price " +
+                "FROM orders o " +
+                "JOIN \"user\" u ON u.id = o.user_id " +
+                "LEFT JOIN order_items oi ON oi.order_id = o.id " +
+                "LEFT JOIN product p ON p.id = oi.product_id " +
+                (predicates.isEmpty() ? "" : "WHERE " + String.join(" AND ", predicates) + " ") +
+                "ORDER BY o.created_at, o.id, oi.created_at, oi.id";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, rs -> {
+            action.accept(new OrderExportRow(
+                    rs.getObject("order_id", UUID.class),
+                    rs.getTimestamp("created_at").toInstant(),
+                    rs.getString("status"),
+                    rs.getBigDecimal("total"),
+                    rs.getObject("user_id", UUID.class),
+                    rs.getString("f_name"),
+                    rs.getString("l_name"),
+                    rs.getString("email"),
+                    rs.getObject("item_id", UUID.class),
+                    rs.getObject("product_id", UUID.class),
+                    rs.getString("product_name"),
+                    rs.getObject("quantity", Integer.class),
+                    rs.getBigDecimal("unit_price")));
+        });
+    }
+
+    @Override
+    public List<BucketSegmentCount> countCustomerSegmentsByBucket(ZonedDateTime start, ZonedDateTime end,
+                                                                  Granularity granularity) {
+        String bucket = bucketOf(granularity);
+        return entityManager.createQuery(
+                        "SELECT new org.example.api.repository.projection.BucketSegmentCount(" + bucket + ", " +
+                                "SUM(CASE WHEN f.firstOrderId IS NULL OR f.firstOrderId = o.id THEN 1 ELSE 0 END), " +
+                                "SUM(CASE WHEN f.firstOrderId IS NULL OR f.firstOrderId = o.id THEN 0 ELSE 1 END)) " +
+                                "FROM Order o LEFT JOIN CustomerFirstOrder f ON f.userId = o.user.id " +
+                                "WHERE o.createdAt >= :start AND o.createdAt < :end " +
+                                "GROUP BY " + bucket + " ORDER BY " + bucket, BucketSegmentCount.class)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .getResultList();
+    }
+
+    // Bucket start of an order's creation time, in the database session's zone like the daily rollup.
+    @Override
+    public void forEachAnalyticsRow(ZonedDateTime start, ZonedDateTime end, Granularity period,
+                                    Consumer<AnalyticsRow> action) {
+        if (period != Granularity.HOUR && period != Granularity.DAY) {
+            throw new IllegalArgumentException("Live analytics rows are read by hour or day");
+        }
+
+        // Periods are in the session's zone, like the daily rollup; the unit is a literal, not a parameter
+        String sql = "SELECT date_trunc('" + period.hqlUnit() + "', CAST(o.created_at AS timestamp)) AS period, " +
+                "o.status, NULL AS category_id, NULL AS category_name, NULL AS product_id, NULL AS product_name, " +
+                "SUM(o.total) AS revenue, 0 AS units, COUNT(*) AS order_count " +
+                "FROM orders o " +
+                "WHERE o.created_at >= ? AND o.created_at < ? " +
+                "GROUP BY 1, o.status " +
+                "UNION ALL " +
+                "SELECT NULL, NULL, c.id, c.name, p.id, p.name, SUM(oi.unit_price * oi.quantity), SUM(oi.quantity), COUNT(*) " +
+                "FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+                "JOIN product p ON p.id = oi.product_id JOIN category c ON c.id = p.category_id " +
+                "WHERE o.created_at >= ? AND o.created_at < ? " +
+                "GROUP BY c.id, c.name, p.id, p.name";
+
+        Timestamp from = Timestamp.from(start.toInstant());
+        Timestamp to = Timestamp.from(end.toInstant());
+        AnalyticsRowMapper mapper = new AnalyticsRowMapper();
+        jdbcTemplate.query(sql, rs -> {
+            action.accept(mapper.mapRow(rs, 0));
+        }, from, to, from, to);
+    }
+
+    // The truncate() unit is a keyword, not a parameter.
+    private static String bucketOf(Granularity granularity) {
+        return granularity == Granularity.HOUR
+                ? "TRUNCATE(CAST(o.createdAt AS LocalDateTime), hour)"
+                : "TRUNCATE(CAST(o.createdAt AS LocalDate), " + granularity.hqlUnit() + ")";
+    }
+}
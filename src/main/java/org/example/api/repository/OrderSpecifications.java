@@ -0,0 +1,56 @@
+package org.example.api.repository;
+
+import jakarta.persistence.criteria.JoinType;
+import org.example.api.model.Order;
+import org.example.api.model.Order.OrderStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Filters of the order listings. A null argument adds no predicate, so each query only carries the
+ * filters actually given and the database can plan it against the matching index.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> search(UUID userId, OrderStatus status, ZonedDateTime startDate,
+                                              ZonedDateTime endDate) {
+        return Specification.where(hasUser(userId))
+                .and(hasStatus(status))
+                .and(createdFrom(startDate))
+                .and(createdUntil(endDate));
+    }
+
+    /**
+     * Joins the customer into the row query, so listing orders costs no extra statement per customer.
+     * Count queries are left alone.
+     */
+    public static Specification<Order> fetchUser() {
+        return (root, query, cb) -> {
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                root.fetch("user", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Order> hasUser(UUID userId) {
+        return userId == null ? null : (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Order> hasStatus(OrderStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Order> createdFrom(ZonedDateTime startDate) {
+        return startDate == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), startDate);
+    }
+
+    public static Specification<Order> createdUntil(ZonedDateTime endDate) {
+        return endDate == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), endDate);
+    }
+}
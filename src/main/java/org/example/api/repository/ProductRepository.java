@@ -1,33 +1,43 @@
 package org.example.api.repository;
 
 import org.example.api.model.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface ProductRepository extends JpaRepository<Product, UUID> {
-    List<Product> findByCategoryId(UUID categoryId);
-    List<Product> findByColorId(UUID colorId);
-    List<Product> findBySizeId(UUID sizeId);
-    List<Product> findByArchivedFalse();
-    List<Product> findByFeaturedTrue();
-
-    @Query("SELECT p FROM Product p WHERE " +
-            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
-            "(:colorId IS NULL OR p.color.id = :colorId) AND " +
-            "(:sizeId IS NULL OR p.size.id = :sizeId) AND " +
-            "(:archived IS NULL OR p.archived = :archived) AND " +
-            "(:featured IS NULL OR p.featured = :featured)")
-    List<Product> searchProducts(
-            @Param("name") String name,
-            @Param("categoryId") UUID categoryId,
-            @Param("colorId") UUID colorId,
-            @Param("sizeId") UUID sizeId,
-            @Param("archived") Boolean archived,
-            @Param("featured") Boolean featured
-    );
-}
\ No newline at end of file
+/**
+ * Product listings go through {@link ProductRepositoryCustom#findPage} with {@link ProductSpecifications}
+ * filters and a keyset cursor, so each page is read with a seek predicate rather than an offset.
+ * Lists that only need product columns use {@link ProductRepositoryCustom#findSummaries} instead.
+ */
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
+
+    // Product with its references and images in one statement, for the detail view
+    @EntityGraph(attributePaths = {"category", "color", "size", "images"})
+    Optional<Product> findDetailedById(UUID id);
+
+    // Every product with references and images, in one statement
+    @EntityGraph(attributePaths = {"category", "color", "size", "images"})
+    @Query("SELECT p FROM Product p")
+    List<Product> findAllDetailed();
+
+    // The active products with the least stock, for the inventory status tile
+    @EntityGraph(attributePaths = "category")
+    List<Product> findTop6ByArchivedFalseOrderByStockAsc();
+
+    // Products at or below a stock level, with their category, for the inventory alert
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByStockLessThanEqual(int stock);
+
+    // Initializes the images of already loaded products in one statement
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.images WHERE p IN :products")
+    List<Product> fetchImages(@Param("products") Collection<Product> products);
+}
@@ -0,0 +1,32 @@
+package org.example.api.repository;
+
+import org.example.api.model.Product;
+import org.example.api.repository.projection.CatalogueStamps;
+import org.example.api.repository.projection.ProductSummary;
+import org.example.api.util.ProductPageQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * One page of the products matching a filter, read with a keyset seek from the page's cursor. One row
+     * more than the page size is returned when there is a next page.
+     */
+    List<Product> findPage(Specification<Product> filter, ProductPageQuery page);
+
+    /**
+     * One page of the products matching a filter as summaries holding only the requested
+     * {@link org.example.api.dto.ProductDTO#SUMMARY_FIELDS}, plus the id and sort key the next cursor needs.
+     * Read with a keyset seek from the page's cursor; one row more than the page size is returned when
+     * there is a next page.
+     */
+    List<ProductSummary> findSummaries(Specification<Product> filter, Set<String> fields, ProductPageQuery page);
+
+    /**
+     * Fingerprints of the products, categories, colors and sizes as committed, in one statement
+     */
+    CatalogueStamps findCatalogueStamps();
+}
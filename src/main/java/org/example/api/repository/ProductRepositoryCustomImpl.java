@@ -0,0 +1,155 @@
+package org.example.api.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.example.api.model.Product;
+import org.example.api.model.ProductImage;
+import org.example.api.repository.projection.CatalogueStamps;
+import org.example.api.repository.projection.ProductSummary;
+import org.example.api.util.ProductPageQuery;
+import org.example.api.util.ProductSort;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    private static final String CATALOGUE_STAMPS_SQL =
+            "SELECT " + stampColumns("product", "p") + ", " + stampColumns("product_images", "i") + ", " +
+            stampColumns("category", "c") + ", " + stampColumns("colors", "o") + ", " + stampColumns("sizes", "s");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findPage(Specification<Product> filter, ProductPageQuery page) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(product);
+        seekAndOrder(cb, query, product, filter, page);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(page.limit() + 1)
+                .getResultList();
+    }
+
+    @Override
+    public List<ProductSummary> findSummaries(Specification<Product> filter, Set<String> fields, ProductPageQuery page) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+        ProductSort sort = page.sort();
+
+        // The id and the sort key are always selected, the next cursor is made of them
+        query.select(cb.construct(ProductSummary.class,
+                product.get("id"),
+                column(cb, product, "name", String.class, fields, sort),
+                column(cb, product, "price", BigDecimal.class, fields, sort),
+                column(cb, product, "stock", Integer.class, fields, sort),
+                column(cb, product, "createdAt", ZonedDateTime.class, fields, sort),
+                column(cb, product, "description", String.class, fields, sort),
+                column(cb, product, "archived", Boolean.class, fields, sort),
+                column(cb, product, "featured", Boolean.class, fields, sort),
+                fields.contains("thumbnail") ? thumbnail(cb, query, product) : cb.nullLiteral(String.class)));
+        seekAndOrder(cb, query, product, filter, page);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(page.limit() + 1)
+                .getResultList();
+    }
+
+    // Filter, seek past the page's cursor and order by the sort key and id
+    private static void seekAndOrder(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Product> product,
+                                     Specification<Product> filter, ProductPageQuery page) {
+        ProductSort sort = page.sort();
+        Predicate where = filter != null ? filter.toPredicate(product, query, cb) : null;
+        if (page.after() != null) {
+            Predicate seek = seek(cb, product, sort, page.direction(), sort.positionAfter(page.after()).getKeys());
+            where = where != null ? cb.and(where, seek) : seek;
+        }
+        if (where != null) {
+            query.where(where);
+        }
+
+        boolean ascending = page.direction() == Sort.Direction.ASC;
+        Expression<?> key = sortKey(cb, product, sort);
+        Path<Object> id = product.get("id");
+        query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+    }
+
+    // Names are compared in the "C" collation, the code point order ProductSort uses in memory
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Expression<Comparable> sortKey(CriteriaBuilder cb, Root<Product> product, ProductSort sort) {
+        if (sort == ProductSort.NAME) {
+            return (Expression) ((HibernateCriteriaBuilder) cb).collate(product.get("name"), "\"C\"");
+        }
+        return product.get(sort.property());
+    }
+
+    @Override
+    public CatalogueStamps findCatalogueStamps() {
+        Object[] row = (Object[]) entityManager.createNativeQuery(CATALOGUE_STAMPS_SQL).getSingleResult();
+        return new CatalogueStamps(
+                row[0] + "-" + row[2] + "/" + stamp(row, 3),
+                ((Number) row[1]).longValue(),
+                stamp(row, 6),
+                stamp(row, 9),
+                stamp(row, 12));
+    }
+
+    // Row count, version sum and latest creation time of a table. Images are only added and removed, never
+    // updated, so they have no version
+    private static String stampColumns(String table, String alias) {
+        String versions = table.equals("product_images") ? "0" : "COALESCE(SUM(version), 0)";
+        return "(SELECT COUNT(*) FROM " + table + ") AS " + alias + "_count, " +
+                "(SELECT " + versions + " FROM " + table + ") AS " + alias + "_versions, " +
+                "(SELECT MAX(created_at) FROM " + table + ") AS " + alias + "_created";
+    }
+
+    private static String stamp(Object[] row, int from) {
+        return row[from] + "-" + row[from + 1] + "-" + row[from + 2];
+    }
+
+    private static <T> Expression<T> column(CriteriaBuilder cb, Root<Product> product, String property, Class<T> type,
+                                            Set<String> fields, ProductSort sort) {
+        return fields.contains(property) || sort.property().equals(property)
+                ? product.get(property)
+                : cb.nullLiteral(type);
+    }
+
+    // Url of the product's first uploaded image, the same one ProductDTO shows as its thumbnail
+    private static Expression<String> thumbnail(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Product> product) {
+        Subquery<String> subquery = query.subquery(String.class);
+        Root<ProductImage> image = subquery.from(ProductImage.class);
+        subquery.select(image.get("url")).where(cb.equal(image.get("product"), product));
+        return ((JpaSubQuery<String>) subquery)
+                .orderBy(cb.asc(image.get("createdAt")), cb.asc(image.get("id")))
+                .fetch(1);
+    }
+
+    // Rows strictly after (key, id) in the direction of the listing
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seek(CriteriaBuilder cb, Root<Product> product, ProductSort sort, Sort.Direction direction,
+                                  Map<String, Object> after) {
+        Expression<Comparable> key = sortKey(cb, product, sort);
+        Path<UUID> id = product.get("id");
+        Comparable keyValue = (Comparable) after.get(sort.property());
+        UUID idValue = (UUID) after.get("id");
+
+        if (direction == Sort.Direction.ASC) {
+            return cb.or(cb.greaterThan(key, keyValue),
+                    cb.and(cb.equal(key, keyValue), cb.greaterThan(id, idValue)));
+        }
+        return cb.or(cb.lessThan(key, keyValue),
+                cb.and(cb.equal(key, keyValue), cb.lessThan(id, idValue)));
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.api.repository;
+
+import jakarta.persistence.criteria.JoinType;
+import org.example.api.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Filters of the product listings. A null argument matches every product.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> search(String name, UUID categoryId, UUID colorId, UUID sizeId,
+                                                Boolean archived, Boolean featured) {
+        return Specification.where(nameContains(name))
+                .and(hasCategory(categoryId))
+                .and(hasColor(colorId))
+                .and(hasSize(sizeId))
+                .and(isArchived(archived))
+                .and(isFeatured(featured));
+    }
+
+    /**
+     * Joins the category, color and size into the row query, so listing products costs no
+     * extra statement per reference. Count queries are left alone.
+     */
+    public static Specification<Product> fetchReferences() {
+        return (root, query, cb) -> {
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                root.fetch("category", JoinType.LEFT);
+                root.fetch("color", JoinType.LEFT);
+                root.fetch("size", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Product> idIn(Collection<UUID> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Product> nameContains(String name) {
+        return name == null ? null : (root, query, cb) ->
+                cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%");
+    }
+
+    public static Specification<Product> hasCategory(UUID categoryId) {
+        return categoryId == null ? null : (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Product> hasColor(UUID colorId) {
+        return colorId == null ? null : (root, query, cb) -> cb.equal(root.get("color").get("id"), colorId);
+    }
+
+    public static Specification<Product> hasSize(UUID sizeId) {
+        return sizeId == null ? null : (root, query, cb) -> cb.equal(root.get("size").get("id"), sizeId);
+    }
+
+    public static Specification<Product> isArchived(Boolean archived) {
+        return archived == null ? null : (root, query, cb) -> cb.equal(root.get("archived"), archived);
+    }
+
+    public static Specification<Product> isFeatured(Boolean featured) {
+        return featured == null ? null : (root, query, cb) -> cb.equal(root.get("featured"), featured);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.api.model.Order.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of the analytics snapshot read. Rows without a product carry the order totals of a period
+ * (a day, or an hour for hourly ranges) and status; rows with a product carry that product's item
+ * sales over the whole range read, with no period or status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRow {
+    private LocalDateTime period;
+    private OrderStatus status;
+    private UUID categoryId;
+    private String categoryName;
+    private UUID productId;
+    private String productName;
+    private BigDecimal revenue;
+    private long units;
+    private long orderCount;
+
+    public boolean isProductRow() {
+        return productId != null;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Orders of new and returning customers in one time bucket, identified by its start
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BucketSegmentCount {
+    private LocalDateTime bucket;
+    private long newCustomers;
+    private long returning;
+
+    // Day, week and month buckets start at midnight
+    public BucketSegmentCount(LocalDate bucket, long newCustomers, long returning) {
+        this(bucket.atStartOfDay(), newCustomers, returning);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fingerprints of the persisted catalogue, one per aggregate: row count, sum of the row versions and
+ * latest creation time. Any committed insert, update or delete changes the fingerprint of its table,
+ * whatever instance made it and in whatever order transactions commit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogueStamps {
+    // Product count and latest creation time, then the same for their images
+    private String products;
+    // Kept apart so an instance can account for the version bumps of its own stock changes
+    private long productVersions;
+    private String categories;
+    private String colors;
+    private String sizes;
+
+    /**
+     * Fingerprint of the products and their images
+     */
+    public String productsStamp() {
+        return products + "/" + productVersions;
+    }
+
+    /**
+     * These fingerprints after updates that bumped product versions the given number of times and
+     * inserted or deleted nothing
+     */
+    public CatalogueStamps withProductVersionsBumped(long bumps) {
+        return new CatalogueStamps(products, productVersions + bumps, categories, colors, sizes);
+    }
+}
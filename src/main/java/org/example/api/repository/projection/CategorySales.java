@@ -0,0 +1,21 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Order item revenue aggregated per category
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySales {
+    private UUID categoryId;
+    private String categoryName;
+    private BigDecimal revenue;
+    private long itemCount;
+}
@@ -0,0 +1,20 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders aggregated per calendar day
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOrderTotals {
+    private LocalDate orderDate;
+    private BigDecimal revenue;
+    private long orderCount;
+}
@@ -0,0 +1,32 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One order item with its order and customer, as streamed by the order export. An order without items
+ * comes as a single row whose item columns are null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRow {
+    private UUID orderId;
+    private Instant createdAt;
+    private String status;
+    private BigDecimal total;
+    private UUID userId;
+    private String userFirstName;
+    private String userLastName;
+    private String userEmail;
+    private UUID itemId;
+    private UUID productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,23 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * An order item with the name of its product, read without loading the item or product entities
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemRow {
+    private UUID orderId;
+    private UUID id;
+    private UUID productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,18 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Revenue and number of orders over a set of orders
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTotals {
+    private BigDecimal revenue;
+    private long orderCount;
+}
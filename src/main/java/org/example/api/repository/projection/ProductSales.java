@@ -0,0 +1,45 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Units sold and item revenue aggregated per product
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSales {
+    private UUID productId;
+    private String productName;
+    private BigDecimal revenue;
+    private long units;
+
+    public ProductSales plus(ProductSales other) {
+        return new ProductSales(productId, productName, revenue.add(other.revenue), units + other.units);
+    }
+
+    /**
+     * What products are ranked by
+     */
+    public enum Metric {
+        UNITS(Comparator.comparingLong(ProductSales::getUnits).reversed()),
+        REVENUE(Comparator.comparing(ProductSales::getRevenue).reversed());
+
+        private final Comparator<ProductSales> ranking;
+
+        Metric(Comparator<ProductSales> highestFirst) {
+            // Ties are broken by name, like the ranking queries
+            this.ranking = highestFirst.thenComparing(ProductSales::getProductName);
+        }
+
+        public Comparator<ProductSales> ranking() {
+            return ranking;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.api.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Product columns of a lightweight listing, with the url of its first image. Columns that were not
+ * asked for are not selected and stay null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+    private UUID id;
+    private String name;
+    private BigDecimal price;
+    private Integer stock;
+    private ZonedDateTime createdAt;
+    private String description;
+    private Boolean archived;
+    private Boolean featured;
+    private String thumbnail;
+}
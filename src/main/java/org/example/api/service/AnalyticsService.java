@@ -1,251 +1,129 @@
 package org.example.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.api.config.CacheConfig;
 import org.example.api.dto.*;
-import org.example.api.model.Order;
-import org.example.api.model.OrderItem;
-import org.example.api.model.Product;
+import org.example.api.exception.InvalidRangeException;
+import org.example.api.model.Order.OrderStatus;
 import org.example.api.repository.OrderRepository;
 import org.example.api.repository.ProductRepository;
 import org.example.api.repository.UserRepository;
+import org.example.api.repository.projection.BucketSegmentCount;
+import org.example.api.repository.projection.CategorySales;
+import org.example.api.repository.projection.ProductSales;
+import org.example.api.util.AnalyticsRange;
+import org.example.api.util.Granularity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
+import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Analytics page metrics. Time-range results are cached per day and dropped whenever an order changes.
+ * Every metric is aggregated by the database, so the work done here grows with the number of
+ * buckets returned rather than with the length of the range.
+ */
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
+    public static final int DEFAULT_TOP_PRODUCTS = 5;
+    public static final int MAX_TOP_PRODUCTS = 100;
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final DailySalesRollupService rollupService;
 
-    /**
-     * Parse time range and get the start date for filtering
-     */
-    private ZonedDateTime getStartDateFromTimeRange(String timeRange) {
-        ZonedDateTime now = ZonedDateTime.now();
-
-        return switch (timeRange) {
-            case "30days" -> now.minusDays(30);
-            case "3months" -> now.minusMonths(3);
-            case "6months" -> now.minusMonths(6);
-            case "1year" -> now.minusYears(1);
-            default -> now.minusMonths(6); // Default to 6 months
-        };
-    }
+    @Value("${app.analytics.max-buckets:200}")
+    private int maxBuckets;
 
     /**
-     * Get revenue and order trends over time
+     * Resolve the range of a request: either one of the preset time ranges, or from/to. A granularity
+     * applies to both, coarsened if needed to stay within the bucket limit; without one a preset keeps
+     * its own.
      */
-    public List<RevenueTrendDTO> getRevenueTrends(String timeRange) {
-        ZonedDateTime startDate = getStartDateFromTimeRange(timeRange);
-        List<Order> orders = orderRepository.findByCreatedAtAfter(startDate);
-
-        // Group by month/week/day based on time range
-        String format = switch (timeRange) {
-            case "30days" -> "MM-dd"; // Show day for 30 days view
-            case "3months", "6months" -> "yyyy-MM"; // Show month for 3-6 months view
-            case "1year" -> "yyyy-MM"; // Show month for yearly view
-            default -> "yyyy-MM";
-        };
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-        Map<String, RevenueTrendDTO> trends = new LinkedHashMap<>();
-
-        // Initialize periods (especially important for shorter timeframes)
-        ZonedDateTime now = ZonedDateTime.now();
-        if ("30days".equals(timeRange)) {
-            // For 30 days, initialize each day
-            for (int i = 30; i >= 0; i--) {
-                String date = formatter.format(now.minusDays(i));
-                trends.put(date, new RevenueTrendDTO(date, BigDecimal.ZERO, 0));
-            }
-        } else if ("3months".equals(timeRange)) {
-            // For 3 months, initialize each month
-            for (int i = 3; i >= 0; i--) {
-                String date = formatter.format(now.minusMonths(i));
-                trends.put(date, new RevenueTrendDTO(date, BigDecimal.ZERO, 0));
-            }
-        } else {
-            // For 6 months and 1 year
-            int months = "6months".equals(timeRange) ? 6 : 12;
-            for (int i = months; i >= 0; i--) {
-                String date = formatter.format(now.minusMonths(i));
-                trends.put(date, new RevenueTrendDTO(date, BigDecimal.ZERO, 0));
-            }
+    public AnalyticsRange resolveRange(String timeRange, ZonedDateTime from, ZonedDateTime to, String granularity) {
+        if (from == null && to == null) {
+            AnalyticsRange preset = AnalyticsRange.ofTimeRange(timeRange != null ? timeRange : "6months");
+            return granularity != null
+                    ? AnalyticsRange.between(preset.start(), preset.end(), Granularity.parse(granularity), maxBuckets)
+                    : preset;
         }
-
-        // Populate with actual data
-        for (Order order : orders) {
-            String period = formatter.format(order.getCreatedAt());
-            if (!trends.containsKey(period)) {
-                trends.put(period, new RevenueTrendDTO(period, BigDecimal.ZERO, 0));
-            }
-
-            RevenueTrendDTO trend = trends.get(period);
-            trend.setRevenue(trend.getRevenue().add(order.getTotal()));
-            trend.setOrders(trend.getOrders() + 1);
+        if (from == null || to == null) {
+            throw new InvalidRangeException("from and to must be given together");
         }
 
-        return new ArrayList<>(trends.values());
+        return AnalyticsRange.between(from, to, granularity != null ? Granularity.parse(granularity) : null, maxBuckets);
     }
 
     /**
-     * Get sales performance by category
+     * Get every metric of the analytics page at once. The sales metrics are folded from a single pass over
+     * the analytics rows of the range, one rollup and one live statement; customer segmentation needs
+     * per-order data and stays a separate read.
      */
-    public List<CategoryPerformanceDTO> getCategoryPerformance(String timeRange) {
-        ZonedDateTime startDate = getStartDateFromTimeRange(timeRange);
-        List<Order> orders = orderRepository.findByCreatedAtAfter(startDate);
-
-        Map<UUID, CategoryPerformanceDTO> categoryMap = new HashMap<>();
-
-        for (Order order : orders) {
-            for (OrderItem item : order.getOrderItems()) {
-                UUID categoryId = item.getProduct().getCategory().getId();
-                String categoryName = item.getProduct().getCategory().getName();
-                BigDecimal itemRevenue = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-
-                if (!categoryMap.containsKey(categoryId)) {
-                    categoryMap.put(categoryId, new CategoryPerformanceDTO(
-                            categoryName, BigDecimal.ZERO
-                    ));
-                }
-
-                CategoryPerformanceDTO category = categoryMap.get(categoryId);
-                category.setSales(category.getSales().add(itemRevenue));
-            }
-        }
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, keyGenerator = "analyticsKeyGenerator")
+    public AnalyticsSnapshotDTO getSnapshot(AnalyticsRange range) {
+        SalesFold sales = foldSales(range);
+
+        return new AnalyticsSnapshotDTO(
+                range.start(),
+                range.end(),
+                range.granularity().name().toLowerCase(),
+                sales.trends(),
+                sales.categoryPerformance(),
+                sales.statusDistribution(),
+                sales.topProducts(DEFAULT_TOP_PRODUCTS, ProductSales.Metric.UNITS),
+                customerSegmentation(range),
+                sales.salesByDayOfWeek()
+        );
+    }
 
-        return categoryMap.values().stream()
-                .sorted((a, b) -> b.getSales().compareTo(a.getSales()))
-                .collect(Collectors.toList());
+    /**
+     * Get revenue and order trends, one entry per bucket so empty buckets show up as zeros
+     */
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, keyGenerator = "analyticsKeyGenerator")
+    public List<RevenueTrendDTO> getRevenueTrends(AnalyticsRange range) {
+        return foldSales(range).trends();
     }
 
     /**
-     * Get order status distribution
+     * Get sales performance by category, highest revenue first
      */
-    public List<OrderStatusDTO> getOrderStatusDistribution(String timeRange) {
-        ZonedDateTime startDate = getStartDateFromTimeRange(timeRange);
-        List<Order> orders = orderRepository.findByCreatedAtAfter(startDate);
-
-        // Group by status
-        Map<String, Long> statusCounts = orders.stream()
-                .collect(Collectors.groupingBy(
-                        order -> order.getStatus().name(),
-                        Collectors.counting()));
-
-        return statusCounts.entrySet().stream()
-                .map(entry -> new OrderStatusDTO(entry.getKey(), entry.getValue().intValue()))
-                .collect(Collectors.toList());
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, keyGenerator = "analyticsKeyGenerator")
+    public List<CategoryPerformanceDTO> getCategoryPerformance(AnalyticsRange range) {
+        return foldSales(range).categoryPerformance();
     }
 
     /**
-     * Get top selling products
+     * Get order status distribution, in status order
      */
-    public List<TopProductDTO> getTopSellingProducts(String timeRange) {
-        ZonedDateTime startDate = getStartDateFromTimeRange(timeRange);
-        List<Order> orders = orderRepository.findByCreatedAtAfter(startDate);
-
-        // Group by product and sum quantities
-        Map<UUID, TopProductDTO> productMap = new HashMap<>();
-
-        for (Order order : orders) {
-            for (OrderItem item : order.getOrderItems()) {
-                UUID productId = item.getProduct().getId();
-                String productName = item.getProduct().getName();
-                int quantity = item.getQuantity();
-
-                if (!productMap.containsKey(productId)) {
-                    productMap.put(productId, new TopProductDTO(
-                            productName, 0
-                    ));
-                }
-
-                TopProductDTO product = productMap.get(productId);
-                product.setSales(product.getSales() + quantity);
-            }
-        }
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, keyGenerator = "analyticsKeyGenerator")
+    public List<OrderStatusDTO> getOrderStatusDistribution(AnalyticsRange range) {
+        return foldSales(range).statusDistribution();
+    }
 
-        // Return top products sorted by sales
-        return productMap.values().stream()
-                .sorted((a, b) -> Integer.compare(b.getSales(), a.getSales()))
-                .limit(5) // Top 5 products
+    /**
+     * Get the k top selling products, ranked by units sold or revenue
+     */
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, keyGenerator = "analyticsKeyGenerator")
+    public List<TopProductDTO> getTopSellingProducts(AnalyticsRange range, int k, ProductSales.Metric metric) {
+        return rollupService.getTopProducts(range.fromDay(), range.toDay(), k, metric).stream()
+                .map(product -> new TopProductDTO(product.getProductName(), (int) product.getUnits(), product.getRevenue()))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get customer segmentation (new vs returning)
+     * Get customer segmentation (new vs returning) per bucket, answered from the customer_first_order index
      */
-    public List<CustomerSegmentDTO> getCustomerSegmentation(String timeRange) {
-        ZonedDateTime startDate = getStartDateFromTimeRange(timeRange);
-
-        // Format based on time range
-        String format = switch (timeRange) {
-            case "30days" -> "MM-dd"; // Show day for 30 days view
-            default -> "yyyy-MM"; // Show month for other views
-        };
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-        Map<String, CustomerSegmentDTO> segmentMap = new LinkedHashMap<>();
-
-        // Initialize periods
-        ZonedDateTime now = ZonedDateTime.now();
-        if ("30days".equals(timeRange)) {
-            for (int i = 30; i >= 0; i--) {
-                String date = formatter.format(now.minusDays(i));
-                segmentMap.put(date, new CustomerSegmentDTO(date, 0, 0));
-            }
-        } else if ("3months".equals(timeRange)) {
-            for (int i = 3; i >= 0; i--) {
-                String date = formatter.format(now.minusMonths(i));
-                segmentMap.put(date, new CustomerSegmentDTO(date, 0, 0));
-            }
-        } else {
-            int months = "6months".equals(timeRange) ? 6 : 12;
-            for (int i = months; i >= 0; i--) {
-                String date = formatter.format(now.minusMonths(i));
-                segmentMap.put(date, new CustomerSegmentDTO(date, 0, 0));
-            }
-        }
-
-        // Get all orders in time range
-        List<Order> orders = orderRepository.findByCreatedAtAfter(startDate);
-
-        // For each user, find their first order date to determine if they're new
-        Map<UUID, ZonedDateTime> firstOrderDates = new HashMap<>();
-        for (Order order : orders) {
-            UUID userId = order.getUser().getId();
-            ZonedDateTime orderDate = order.getCreatedAt();
-
-            if (!firstOrderDates.containsKey(userId) ||
-                    orderDate.isBefore(firstOrderDates.get(userId))) {
-                firstOrderDates.put(userId, orderDate);
-            }
-        }
-
-        // Count new vs returning customers for each period
-        for (Order order : orders) {
-            String period = formatter.format(order.getCreatedAt());
-            if (!segmentMap.containsKey(period)) continue;
-
-            UUID userId = order.getUser().getId();
-            ZonedDateTime firstOrderDate = firstOrderDates.get(userId);
-            boolean isFirstOrder = order.getCreatedAt().isEqual(firstOrderDate);
-
-            CustomerSegmentDTO segment = segmentMap.get(period);
-            if (isFirstOrder) {
-                segment.setNewCustomers(segment.getNewCustomers() + 1);
-            } else {
-                segment.setReturning(segment.getReturning() + 1);
-            }
-        }
-
-        return new ArrayList<>(segmentMap.values());
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, keyGenerator = "analyticsKeyGenerator")
+    public List<CustomerSegmentDTO> getCustomerSegmentation(AnalyticsRange range) {
+        return customerSegmentation(range);
     }
 
     /**
@@ -255,12 +133,8 @@ public class AnalyticsService {
         // For inventory, we want current status regardless of time range
         int threshold = 15; // Could be configurable
 
-        List<Product> products = productRepository.findAll();
-
-        return products.stream()
-                .filter(product -> !product.getArchived())
-                .sorted((a, b) -> Integer.compare(a.getStock(), b.getStock()))
-                .limit(6) // Only show top 6 lowest stock items
+        // Only show the 6 lowest stock items, picked by the database
+        return productRepository.findTop6ByArchivedFalseOrderByStockAsc().stream()
                 .map(product -> new InventoryStatusDTO(
                         product.getName(),
                         product.getStock(),
@@ -270,32 +144,117 @@ public class AnalyticsService {
     }
 
     /**
-     * Get sales by day of week
+     * Get sales by day of week, Monday first
      */
-    public List<SalesByDayDTO> getSalesByDayOfWeek(String timeRange) {
-        ZonedDateTime startDate = getStartDateFromTimeRange(timeRange);
-        List<Order> orders = orderRepository.findByCreatedAtAfter(startDate);
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, keyGenerator = "analyticsKeyGenerator")
+    public List<SalesByDayDTO> getSalesByDayOfWeek(AnalyticsRange range) {
+        return foldSales(range).salesByDayOfWeek();
+    }
+
+    // One pass over the analytics rows of the range, shared by the snapshot and the per-metric endpoints so
+    // they always agree
+    private SalesFold foldSales(AnalyticsRange range) {
+        Map<LocalDateTime, RevenueTrendDTO> trends = new LinkedHashMap<>();
+        for (LocalDateTime bucket : range.buckets()) {
+            trends.put(bucket, new RevenueTrendDTO(range.label(bucket), BigDecimal.ZERO, 0));
+        }
+        Map<DayOfWeek, SalesByDayDTO> days = emptyDaysOfWeek();
+        Map<OrderStatus, Long> statuses = new EnumMap<>(OrderStatus.class);
+        Map<UUID, CategorySales> categories = new HashMap<>();
+        Map<UUID, ProductSales> products = new HashMap<>();
+
+        rollupService.forEachAnalyticsRow(range, row -> {
+            if (row.isProductRow()) {
+                categories.merge(row.getCategoryId(),
+                        new CategorySales(row.getCategoryId(), row.getCategoryName(), row.getRevenue(), row.getOrderCount()),
+                        (a, b) -> new CategorySales(a.getCategoryId(), a.getCategoryName(),
+                                a.getRevenue().add(b.getRevenue()), a.getItemCount() + b.getItemCount()));
+                products.merge(row.getProductId(),
+                        new ProductSales(row.getProductId(), row.getProductName(), row.getRevenue(), row.getUnits()),
+                        ProductSales::plus);
+                return;
+            }
+
+            RevenueTrendDTO trend = trends.get(range.granularity().truncate(row.getPeriod()));
+            if (trend != null) {
+                trend.setRevenue(trend.getRevenue().add(row.getRevenue()));
+                trend.setOrders(trend.getOrders() + (int) row.getOrderCount());
+            }
+
+            SalesByDayDTO day = days.get(row.getPeriod().getDayOfWeek());
+            day.setSales(day.getSales().add(row.getRevenue()));
+            day.setTransactions(day.getTransactions() + (int) row.getOrderCount());
+
+            statuses.merge(row.getStatus(), row.getOrderCount(), Long::sum);
+        });
+
+        return new SalesFold(trends, days, statuses, categories, products);
+    }
 
-        // Initialize map with days of week
-        Map<DayOfWeek, SalesByDayDTO> dayMap = new LinkedHashMap<>();
+    // Self-calls bypass the cache proxy, so the snapshot and the endpoint share this rather than call each other
+    private List<CustomerSegmentDTO> customerSegmentation(AnalyticsRange range) {
+        Map<LocalDateTime, CustomerSegmentDTO> segments = new LinkedHashMap<>();
+        for (LocalDateTime bucket : range.buckets()) {
+            segments.put(bucket, new CustomerSegmentDTO(range.label(bucket), 0, 0));
+        }
+
+        // A customer is new in the bucket of their first order ever, returning afterwards
+        for (BucketSegmentCount count : orderRepository.countCustomerSegmentsByBucket(
+                range.start(), range.end(), range.granularity())) {
+            CustomerSegmentDTO segment = segments.get(count.getBucket());
+            if (segment != null) {
+                segment.setNewCustomers((int) count.getNewCustomers());
+                segment.setReturning((int) count.getReturning());
+            }
+        }
+
+        return new ArrayList<>(segments.values());
+    }
+
+    private static Map<DayOfWeek, SalesByDayDTO> emptyDaysOfWeek() {
+        Map<DayOfWeek, SalesByDayDTO> days = new EnumMap<>(DayOfWeek.class);
         for (DayOfWeek day : DayOfWeek.values()) {
             String dayName = day.name().charAt(0) + day.name().substring(1).toLowerCase();
-            dayMap.put(day, new SalesByDayDTO(dayName, BigDecimal.ZERO, 0));
+            days.put(day, new SalesByDayDTO(dayName, BigDecimal.ZERO, 0));
+        }
+        return days;
+    }
+
+    private record SalesFold(Map<LocalDateTime, RevenueTrendDTO> bucketTrends,
+                             Map<DayOfWeek, SalesByDayDTO> days,
+                             Map<OrderStatus, Long> statuses,
+                             Map<UUID, CategorySales> categories,
+                             Map<UUID, ProductSales> products) {
+
+        List<RevenueTrendDTO> trends() {
+            return new ArrayList<>(bucketTrends.values());
+        }
+
+        List<CategoryPerformanceDTO> categoryPerformance() {
+            return categories.values().stream()
+                    .sorted((a, b) -> b.getRevenue().compareTo(a.getRevenue()))
+                    .map(category -> new CategoryPerformanceDTO(category.getCategoryName(), category.getRevenue()))
+                    .collect(Collectors.toList());
         }
 
-        // Aggregate data by day of week
-        for (Order order : orders) {
-            DayOfWeek dayOfWeek = order.getCreatedAt().getDayOfWeek();
-            SalesByDayDTO dayData = dayMap.get(dayOfWeek);
+        // EnumMap iterates in status order
+        List<OrderStatusDTO> statusDistribution() {
+            return statuses.entrySet().stream()
+                    .map(status -> new OrderStatusDTO(status.getKey().name(), status.getValue().intValue()))
+                    .collect(Collectors.toList());
+        }
 
-            dayData.setSales(dayData.getSales().add(order.getTotal()));
-            dayData.setTransactions(dayData.getTransactions() + 1);
+        List<TopProductDTO> topProducts(int k, ProductSales.Metric metric) {
+            return products.values().stream()
+                    .sorted(metric.ranking())
+                    .limit(k)
+                    .map(product -> new TopProductDTO(product.getProductName(), (int) product.getUnits(), product.getRevenue()))
+                    .collect(Collectors.toList());
         }
 
-        // Sort by day of week (Monday first)
-        return dayMap.entrySet().stream()
-                .sorted(Comparator.comparingInt(e -> e.getKey().getValue()))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toList());
+        // EnumMap iterates Monday first
+        List<SalesByDayDTO> salesByDayOfWeek() {
+            return new ArrayList<>(days.values());
+        }
     }
-}
\ No newline at end of file
+}
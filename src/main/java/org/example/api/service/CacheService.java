@@ -0,0 +1,100 @@
+package org.example.api.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.example.api.config.CacheConfig;
+import org.example.api.dto.CacheStatsDTO;
+import org.example.api.event.OrderChangedEvent;
+import org.example.api.event.ReferenceDataChangedEvent;
+import org.example.api.event.SalesRollupChangedEvent;
+import org.example.api.model.Category;
+import org.example.api.model.Color;
+import org.example.api.model.Size;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Invalidates cached results when their underlying data changes, and reports cache statistics
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheService {
+    private final CacheManager cacheManager;
+
+    /**
+     * Any order change can move any analytics metric, so drop them all once the change is committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        clear(CacheConfig.ANALYTICS);
+    }
+
+    /**
+     * Re-aggregated rollup days can differ from what the cached results were built from
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSalesRollupChanged(SalesRollupChangedEvent event) {
+        clear(CacheConfig.ANALYTICS);
+    }
+
+    /**
+     * Drop the cached categories, colors or sizes once a change to them is committed. Runs ahead of
+     * the other listeners, which read the fresh values through the cache.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        clear(cacheOf(event.type()));
+    }
+
+    /**
+     * Hit, miss and eviction counts of every cache
+     */
+    public List<CacheStatsDTO> getStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                CacheStats cacheStats = cache.getNativeCache().stats();
+                stats.add(new CacheStatsDTO(
+                        name,
+                        cache.getNativeCache().estimatedSize(),
+                        cacheStats.hitCount(),
+                        cacheStats.missCount(),
+                        cacheStats.hitRate(),
+                        cacheStats.evictionCount()
+                ));
+            }
+        }
+
+        return stats;
+    }
+
+    private static String cacheOf(Class<?> referenceType) {
+        if (referenceType == Category.class) {
+            return CacheConfig.CATEGORIES;
+        }
+        if (referenceType == Color.class) {
+            return CacheConfig.COLORS;
+        }
+        if (referenceType == Size.class) {
+            return CacheConfig.SIZES;
+        }
+        throw new IllegalArgumentException("Not a reference data type: " + referenceType.getSimpleName());
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package org.example.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.api.dto.*;
+import org.example.api.event.ProductChangedEvent;
+import org.example.api.event.ProductsImportedEvent;
+import org.example.api.event.ReferenceDataChangedEvent;
+import org.example.api.event.StockLevelsChangedEvent;
+import org.example.api.model.Category;
+import org.example.api.model.Color;
+import org.example.api.model.Size;
+import org.example.api.payload.request.product.ProductPageRequest;
+import org.example.api.repository.ProductRepository;
+import org.example.api.repository.projection.CatalogueStamps;
+import org.example.api.service.catalogue.CatalogueRead;
+import org.example.api.service.catalogue.CatalogueSnapshot;
+import org.example.api.service.catalogue.CatalogueVersions;
+import org.example.api.service.catalogue.CatalogueVersions.Aggregate;
+import org.example.api.service.catalogue.ProductFilter;
+import org.example.api.util.ProductPageQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Serves the public catalogue reads (products, categories, colors, sizes) from an immutable in-memory
+ * snapshot. Readers only dereference the current snapshot, so they never lock; writers build a new one
+ * after each committed change and swap it in. Changes made by other instances are picked up by polling
+ * fingerprints of the catalogue tables ({@code app.catalogue.refresh-ms}) and rebuilding when they moved.
+ * Until the first snapshot is built, or when it is disabled with {@code app.catalogue.snapshot.enabled},
+ * reads go to the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogueService {
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ColorService colorService;
+    private final SizeService sizeService;
+    private final CatalogueVersions versions;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<CatalogueSnapshot> snapshot = new AtomicReference<>();
+    // Fingerprints read before the current snapshot was loaded, so it holds at least what they describe,
+    // advanced by the stock changes this instance applied to it since
+    private final AtomicReference<CatalogueStamps> builtFrom = new AtomicReference<>();
+    // Fingerprints the versions were last recorded from
+    private volatile CatalogueStamps recorded;
+
+    @Value("${app.catalogue.snapshot.enabled:true}")
+    private boolean enabled;
+
+    public CatalogueRead<CursorPageDTO<ProductDTO>> findProducts(String name, UUID categoryId, UUID colorId, UUID sizeId,
+                                                                 Boolean archived, Boolean featured, ProductPageRequest request) {
+        ProductPageQuery page = productService.resolvePage(request);
+        return read(
+                current -> current.findProducts(ProductFilter.of(name, categoryId, colorId, sizeId, archived, featured), page),
+                () -> productService.findProducts(name, categoryId, colorId, sizeId, archived, featured, page));
+    }
+
+    /**
+     * A page of filtered products and the facet counts of the filter. Without a snapshot the catalogue is
+     * loaded for this one request.
+     */
+    public CatalogueRead<ProductFacetsDTO> findProductsWithFacets(ProductFilter filter, ProductPageRequest request) {
+        ProductPageQuery page = productService.resolvePage(request);
+        return read(
+                current -> current.findProductsWithFacets(filter, page),
+                () -> load(0).findProductsWithFacets(filter, page));
+    }
+
+    public CatalogueRead<Optional<ProductDTO>> getProduct(UUID id) {
+        return read(current -> current.product(id), () -> productService.getProductById(id));
+    }
+
+    public CatalogueRead<List<CategoryDTO>> getCategories() {
+        return read(CatalogueSnapshot::categories, categoryService::getAllCategories);
+    }
+
+    public CatalogueRead<Optional<CategoryDTO>> getCategory(UUID id) {
+        return read(current -> current.category(id), () -> categoryService.getCategoryById(id));
+    }
+
+    public CatalogueRead<List<ColorDTO>> getColors() {
+        return read(CatalogueSnapshot::colors, colorService::getAllColors);
+    }
+
+    public CatalogueRead<Optional<ColorDTO>> getColor(UUID id) {
+        return read(current -> current.color(id), () -> colorService.getColorById(id));
+    }
+
+    public CatalogueRead<List<SizeDTO>> getSizes() {
+        return read(CatalogueSnapshot::sizes, sizeService::getAllSizes);
+    }
+
+    public CatalogueRead<Optional<SizeDTO>> getSize(UUID id) {
+        return read(current -> current.size(id), () -> sizeService.getSizeById(id));
+    }
+
+    /**
+     * Load the whole catalogue into a new snapshot
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            // Reads come straight from the database, only the versions have to follow it
+            recordStamps();
+            return;
+        }
+
+        try {
+            Map<Aggregate, Long> checkpoint = versions.checkpoint();
+            CatalogueStamps stamps = productRepository.findCatalogueStamps();
+            CatalogueSnapshot built = load(nextVersion());
+            snapshot.set(built);
+            builtFrom.set(stamps);
+            log.info("Catalogue snapshot {} built", built.version());
+            // Only once the data can be read, so a recorded version never labels older data
+            record(stamps, checkpoint);
+        } catch (RuntimeException e) {
+            // Serve from the database rather than from a snapshot that misses the change
+            snapshot.set(null);
+            for (Aggregate aggregate : Aggregate.values()) {
+                versions.bump(aggregate);
+            }
+            log.error("Could not build the catalogue snapshot, reads fall back to the database", e);
+        }
+    }
+
+    /**
+     * A product change only touches that product, so copy the snapshot with its fresh state
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        CatalogueSnapshot current = snapshot.get();
+        if (current == null) {
+            rebuild();
+            return;
+        }
+
+        try {
+            ProductDTO product = productService.getProductById(event.productId()).orElse(null);
+            // Stock levels are applied without this lock, so swap against whatever snapshot is current
+            snapshot.updateAndGet(latest -> latest == null ? null
+                    : latest.withProduct(latest.version() + 1, event.productId(), keepNewerStock(latest, product)));
+        } catch (RuntimeException e) {
+            snapshot.set(null);
+            log.error("Could not update the catalogue snapshot, reads fall back to the database", e);
+        }
+        // Only once the change can be read, so a new version never labels old data. The next refresh
+        // replaces it with the version every instance derives from the tables.
+        versions.bump(Aggregate.PRODUCTS);
+    }
+
+    /**
+     * Checkouts and stock adjustments only move stock, so apply the levels they read back without reloading
+     * the products or re-sorting, and without the lock the other changes take
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockLevelsChanged(StockLevelsChangedEvent event) {
+        snapshot.updateAndGet(current -> current == null ? null
+                : current.withStockLevels(current.version() + 1, event.levels()));
+        // Each product's version went up by one, which the next refresh should not take for a foreign change
+        builtFrom.updateAndGet(stamps -> stamps == null ? null : stamps.withProductVersionsBumped(event.levels().size()));
+        versions.bump(Aggregate.PRODUCTS);
+    }
+
+    /**
+     * A bulk import can touch any number of products, so rebuild everything once
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsImported(ProductsImportedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Categories, colors and sizes are embedded in every product, so rebuild everything
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Rebuild when the catalogue tables no longer match what the snapshot was built from. Catches changes
+     * made by other instances. The stock changes of this instance are already in the snapshot and accounted
+     * for in its fingerprints, so checkouts alone only record the versions they reached. Other local changes
+     * (product edits, images) still cost one rebuild per interval in which they happen. Without a snapshot
+     * only the versions are brought up to date.
+     */
+    @Scheduled(fixedDelayString = "${app.catalogue.refresh-ms:10000}",
+            initialDelayString = "${app.catalogue.refresh-ms:10000}")
+    public void refreshIfChanged() {
+        CatalogueStamps known = builtFrom.get();
+        if (known == null) {
+            return;
+        }
+
+        Map<Aggregate, Long> checkpoint = versions.checkpoint();
+        CatalogueStamps current;
+        try {
+            current = productRepository.findCatalogueStamps();
+        } catch (RuntimeException e) {
+            log.warn("Could not check the catalogue for changes", e);
+            return;
+        }
+        if (current.equals(known)) {
+            if (!current.equals(recorded)) {
+                try {
+                    record(current, checkpoint);
+                } catch (RuntimeException e) {
+                    log.warn("Could not record the catalogue versions", e);
+                }
+            }
+            return;
+        }
+        if (!enabled) {
+            synchronized (this) {
+                builtFrom.set(current);
+                record(current, checkpoint);
+            }
+            return;
+        }
+
+        // Reference data goes through the same path as a local change, which also drops its cache
+        boolean rebuilt = false;
+        for (Class<?> type : changedReferenceTypes(known, current)) {
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(type, null));
+            rebuilt = true;
+        }
+        if (!rebuilt && !Objects.equals(known.productsStamp(), current.productsStamp())) {
+            rebuild();
+        }
+    }
+
+    private void recordStamps() {
+        try {
+            Map<Aggregate, Long> checkpoint = versions.checkpoint();
+            CatalogueStamps stamps = productRepository.findCatalogueStamps();
+            builtFrom.set(stamps);
+            record(stamps, checkpoint);
+        } catch (RuntimeException e) {
+            for (Aggregate aggregate : Aggregate.values()) {
+                versions.bump(aggregate);
+            }
+            log.error("Could not record the catalogue versions", e);
+        }
+    }
+
+    private void record(CatalogueStamps stamps, Map<Aggregate, Long> checkpoint) {
+        versions.record(stamps, checkpoint);
+        recorded = stamps;
+    }
+
+    private static List<Class<?>> changedReferenceTypes(CatalogueStamps known, CatalogueStamps current) {
+        List<Class<?>> types = new ArrayList<>();
+        if (!Objects.equals(known.getCategories(), current.getCategories())) {
+            types.add(Category.class);
+        }
+        if (!Objects.equals(known.getColors(), current.getColors())) {
+            types.add(Color.class);
+        }
+        if (!Objects.equals(known.getSizes(), current.getSizes())) {
+            types.add(Size.class);
+        }
+        return types;
+    }
+
+    // A product read before a later stock change was applied keeps the newer stock level
+    private static ProductDTO keepNewerStock(CatalogueSnapshot current, ProductDTO product) {
+        if (product == null || product.getVersion() == null) {
+            return product;
+        }
+        return current.product(product.getId())
+                .filter(held -> held.getVersion() != null && held.getVersion() > product.getVersion())
+                .map(held -> {
+                    product.setStock(held.getStock());
+                    product.setVersion(held.getVersion());
+                    return product;
+                })
+                .orElse(product);
+    }
+
+    private CatalogueSnapshot load(long version) {
+        return CatalogueSnapshot.of(version, productService.getCatalogue(), categoryService.getAllCategories(),
+                colorService.getAllColors(), sizeService.getAllSizes());
+    }
+
+    private <T> CatalogueRead<T> read(Function<CatalogueSnapshot, T> fromSnapshot, Supplier<T> fromDatabase) {
+        CatalogueSnapshot current = snapshot.get();
+        if (current == null) {
+            return new CatalogueRead<>(fromDatabase.get(), null);
+        }
+        return new CatalogueRead<>(fromSnapshot.apply(current), current.version());
+    }
+
+    // A snapshot built from scratch starts from the clock, so versions keep increasing across rebuilds and restarts
+    private long nextVersion() {
+        CatalogueSnapshot current = snapshot.get();
+        return current != null ? current.version() + 1 : System.currentTimeMillis();
+    }
+}
@@ -1,9 +1,13 @@
 package org.example.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.api.config.CacheConfig;
+import org.example.api.event.ReferenceDataChangedEvent;
 import org.example.api.model.Category;
 import org.example.api.dto.CategoryDTO;
 import org.example.api.repository.CategoryRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.ZonedDateTime;
@@ -16,13 +20,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'all'")
     public List<CategoryDTO> getAllCategories() {
         return categoryRepository.findAll().stream()
                 .map(CategoryDTO::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#id")
     public Optional<CategoryDTO> getCategoryById(UUID id) {
         return categoryRepository.findById(id)
                 .map(CategoryDTO::fromEntity);
@@ -34,6 +41,7 @@ public class CategoryService {
         category.setCreatedAt(ZonedDateTime.now());
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Category.class, savedCategory.getId()));
         return CategoryDTO.fromEntity(savedCategory);
     }
 
@@ -51,6 +59,7 @@ public class CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Category.class, savedCategory.getId()));
         return CategoryDTO.fromEntity(savedCategory);
     }
 
@@ -60,9 +69,11 @@ public class CategoryService {
         }
 
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Category.class, id));
         return true;
     }
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'name:' + #name")
     public boolean nameExists(String name) {
         return categoryRepository.existsByName(name);
     }
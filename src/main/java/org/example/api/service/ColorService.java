@@ -1,9 +1,13 @@
 package org.example.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.api.config.CacheConfig;
+import org.example.api.event.ReferenceDataChangedEvent;
 import org.example.api.model.Color;
 import org.example.api.dto.ColorDTO;
 import org.example.api.repository.ColorRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.ZonedDateTime;
@@ -16,13 +20,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ColorService {
     private final ColorRepository colorRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Cacheable(cacheNames = CacheConfig.COLORS, key = "'all'")
     public List<ColorDTO> getAllColors() {
         return colorRepository.findAll().stream()
                 .map(ColorDTO::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(cacheNames = CacheConfig.COLORS, key = "#id")
     public Optional<ColorDTO> getColorById(UUID id) {
         return colorRepository.findById(id)
                 .map(ColorDTO::fromEntity);
@@ -35,6 +42,7 @@ public class ColorService {
         color.setCreatedAt(ZonedDateTime.now());
 
         Color savedColor = colorRepository.save(color);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Color.class, savedColor.getId()));
         return ColorDTO.fromEntity(savedColor);
     }
 
@@ -56,6 +64,7 @@ public class ColorService {
         }
 
         Color savedColor = colorRepository.save(color);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Color.class, savedColor.getId()));
         return ColorDTO.fromEntity(savedColor);
     }
 
@@ -65,9 +74,11 @@ public class ColorService {
         }
 
         colorRepository.deleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Color.class, id));
         return true;
     }
 
+    @Cacheable(cacheNames = CacheConfig.COLORS, key = "'name:' + #name")
     public boolean nameExists(String name) {
         return colorRepository.existsByName(name);
     }
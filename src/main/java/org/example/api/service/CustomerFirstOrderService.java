@@ -0,0 +1,93 @@
+package org.example.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.api.model.CustomerFirstOrder;
+import org.example.api.model.Order;
+import org.example.api.repository.CustomerFirstOrderRepository;
+import org.example.api.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maintains the customer_first_order index: the first order ever placed by each customer.
+ * The index is updated as orders are created and deleted through this API; a nightly job
+ * indexes recent orders written elsewhere, and the whole index is backfilled on first start.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerFirstOrderService {
+    private final CustomerFirstOrderRepository firstOrderRepository;
+    private final OrderRepository orderRepository;
+
+    @Value("${app.analytics.first-order.lookback-days:3}")
+    private int lookbackDays;
+
+    /**
+     * Record a new order, which becomes the customer's first order unless they already have an earlier one
+     */
+    @Transactional
+    public void applyCreate(Order order) {
+        firstOrderRepository.recordIfEarlier(order.getUser().getId(), order.getId(), order.getCreatedAt());
+    }
+
+    /**
+     * Forget a deleted order: if it was the customer's first order, their next earliest order takes its place
+     */
+    @Transactional
+    public void applyDelete(Order order) {
+        UUID userId = order.getUser().getId();
+        Optional<CustomerFirstOrder> entry = firstOrderRepository.findById(userId);
+        if (entry.isEmpty() || !entry.get().getFirstOrderId().equals(order.getId())) {
+            return;
+        }
+
+        Optional<Order> next = orderRepository.findFirstByUserIdAndIdNotOrderByCreatedAtAsc(userId, order.getId());
+        if (next.isPresent()) {
+            entry.get().setFirstOrderId(next.get().getId());
+            entry.get().setFirstOrderAt(next.get().getCreatedAt());
+            firstOrderRepository.save(entry.get());
+        } else {
+            firstOrderRepository.delete(entry.get());
+        }
+    }
+
+    /**
+     * Backfill: rebuild the whole index in one statement, the database picking each customer's first order
+     */
+    @Transactional
+    public void rebuild() {
+        firstOrderRepository.deleteAllInBatch();
+        int customers = firstOrderRepository.recordAllFirstOrders();
+        log.info("Rebuilt customer first order index: {} customers", customers);
+    }
+
+    /**
+     * Nightly job: index the last few days of orders, picking up orders written outside this API
+     */
+    @Scheduled(cron = "${app.analytics.first-order.cron:0 15 0 * * *}")
+    @Transactional
+    public void indexRecentOrders() {
+        firstOrderRepository.recordFirstOrdersSince(ZonedDateTime.now().minusDays(lookbackDays));
+    }
+
+    /**
+     * Backfill on first start, when the index is still empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (firstOrderRepository.count() == 0) {
+            rebuild();
+        }
+    }
+}
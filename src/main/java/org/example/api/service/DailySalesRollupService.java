@@ -0,0 +1,358 @@
+package org.example.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.api.event.SalesRollupChangedEvent;
+import org.example.api.model.Order;
+import org.example.api.model.Order.OrderStatus;
+import org.example.api.model.OrderItem;
+import org.example.api.repository.DailySalesRollupRepository;
+import org.example.api.repository.OrderRepository;
+import org.example.api.repository.projection.AnalyticsRow;
+import org.example.api.repository.projection.CategorySales;
+import org.example.api.repository.projection.DailyOrderTotals;
+import org.example.api.repository.projection.ProductSales;
+import org.example.api.util.AnalyticsRange;
+import org.example.api.util.Granularity;
+import org.example.api.util.TimeRange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the daily_sales_rollup table and answers sales aggregates from it.
+ * Days older than {@link #LIVE_DAYS} are read from the rollup; the most recent days are
+ * aggregated live from the orders table, so orders written outside this API are never missed
+ * and the nightly job has a full day of slack to seal a day.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailySalesRollupService {
+    // Today and yesterday are always read live from the orders table
+    private static final int LIVE_DAYS = 2;
+
+    private final DailySalesRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.analytics.rollup.lookback-days:3}")
+    private int lookbackDays;
+
+    /**
+     * Revenue and order count per day since the given day, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<DailyOrderTotals> getDailyTotals(LocalDate from) {
+        LocalDate liveFrom = liveFrom();
+        List<DailyOrderTotals> totals = new ArrayList<>();
+
+        // Rollup and live days never overlap, so the two lists can simply be concatenated
+        if (from.isBefore(liveFrom)) {
+            totals.addAll(rollupRepository.sumDailyTotals(from, liveFrom));
+        }
+        totals.addAll(orderRepository.sumDailyTotals(TimeRange.startOf(later(from, liveFrom)), liveTo()));
+        return totals;
+    }
+
+    /**
+     * Item revenue per category since the given day, highest first
+     */
+    @Transactional(readOnly = true)
+    public List<CategorySales> getCategorySales(LocalDate from) {
+        return getCategorySales(from, LocalDate.now().plusDays(1));
+    }
+
+    /**
+     * Item revenue per category for days in [from, to), highest first
+     */
+    @Transactional(readOnly = true)
+    public List<CategorySales> getCategorySales(LocalDate from, LocalDate to) {
+        List<CategorySales> sales = merge(from, to,
+                rollupRepository::sumSalesByCategory,
+                orderRepository::sumSalesByCategory,
+                CategorySales::getCategoryId,
+                (a, b) -> new CategorySales(a.getCategoryId(), a.getCategoryName(),
+                        a.getRevenue().add(b.getRevenue()), a.getItemCount() + b.getItemCount()));
+        sales.sort((a, b) -> b.getRevenue().compareTo(a.getRevenue()));
+        return sales;
+    }
+
+    /**
+     * The k best selling products for days in [from, to), ranked by the metric.
+     * Only k rollup rows are read: the rollup's top k, merged with every product sold in the
+     * live window, always contains the true top k, since live sales can only raise a total.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSales> getTopProducts(LocalDate from, LocalDate to, int k, ProductSales.Metric metric) {
+        LocalDate rollupTo = earlier(to, liveFrom());
+        LocalDate liveStart = later(from, liveFrom());
+        Map<UUID, ProductSales> candidates = new HashMap<>();
+
+        if (from.isBefore(rollupTo)) {
+            Pageable limit = PageRequest.of(0, k);
+            List<ProductSales> top = metric == ProductSales.Metric.REVENUE
+                    ? rollupRepository.findTopProductsByRevenue(from, rollupTo, limit)
+                    : rollupRepository.findTopProductsByUnits(from, rollupTo, limit);
+            top.forEach(product -> candidates.put(product.getProductId(), product));
+        }
+
+        if (liveStart.isBefore(to)) {
+            List<ProductSales> live = orderRepository.sumProductSales(TimeRange.startOf(liveStart), TimeRange.startOf(to));
+            if (from.isBefore(rollupTo)) {
+                // Products sold live but outside the rollup's top k still need their rollup totals
+                Set<UUID> missing = live.stream()
+                        .map(ProductSales::getProductId)
+                        .filter(id -> !candidates.containsKey(id))
+                        .collect(Collectors.toSet());
+                if (!missing.isEmpty()) {
+                    rollupRepository.sumProductSales(from, rollupTo, missing)
+                            .forEach(product -> candidates.put(product.getProductId(), product));
+                }
+            }
+            live.forEach(product -> candidates.merge(product.getProductId(), product, ProductSales::plus));
+        }
+
+        return candidates.values().stream()
+                .sorted(metric.ranking())
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Visit every analytics row of the range: days before the live window from the rollup, the rest live
+     * from the orders table, one statement each. The rollup has no hours, so an hourly range, which is
+     * capped to a few days, is read live entirely and to the exact instant.
+     * A product can appear on both sides.
+     */
+    @Transactional(readOnly = true)
+    public void forEachAnalyticsRow(AnalyticsRange range, Consumer<AnalyticsRow> action) {
+        if (range.granularity() == Granularity.HOUR) {
+            orderRepository.forEachAnalyticsRow(range.start(), range.end(), Granularity.HOUR, action);
+            return;
+        }
+
+        LocalDate from = range.fromDay();
+        LocalDate to = range.toDay();
+        LocalDate liveStart = later(from, liveFrom());
+        LocalDate rollupTo = earlier(to, liveStart);
+
+        if (from.isBefore(rollupTo)) {
+            rollupRepository.forEachAnalyticsRow(from, rollupTo, action);
+        }
+        if (liveStart.isBefore(to)) {
+            orderRepository.forEachAnalyticsRow(TimeRange.startOf(liveStart), TimeRange.startOf(to), Granularity.DAY, action);
+        }
+    }
+
+    /**
+     * Add a new order's contribution. Orders are placed in the live window, so this only matters
+     * for an order dated before it.
+     */
+    @Transactional
+    public void applyCreate(Order order) {
+        if (isLive(order)) {
+            return;
+        }
+
+        apply(order, order.getStatus(), 1);
+    }
+
+    /**
+     * Move an order's contribution from its previous status to its current one
+     */
+    @Transactional
+    public void applyStatusChange(Order order, OrderStatus previousStatus) {
+        if (previousStatus == order.getStatus() || isLive(order)) {
+            return;
+        }
+
+        apply(order, previousStatus, -1);
+        apply(order, order.getStatus(), 1);
+    }
+
+    /**
+     * Remove a deleted order's contribution
+     */
+    @Transactional
+    public void applyDelete(Order order) {
+        if (isLive(order)) {
+            return;
+        }
+
+        apply(order, order.getStatus(), -1);
+    }
+
+    /**
+     * Re-aggregate the rollup for days in [from, to) from the orders table. The rows are zeroed and
+     * recomputed in place by upserts, all in one transaction: an order update adding to a row waits for it
+     * and then adds on top, so neither side inserts a duplicate or loses the other's change.
+     */
+    @Transactional
+    public void rollUp(LocalDate from, LocalDate to) {
+        ZoneId zone = zone();
+        ZonedDateTime start = TimeRange.startOf(from, zone);
+        ZonedDateTime end = TimeRange.startOf(to, zone);
+
+        rollupRepository.zeroSalesDateRange(from, to);
+        rollupRepository.rollUpOrderTotals(start, end, zone.getId());
+        rollupRepository.rollUpProductTotals(start, end, zone.getId());
+        rollupRepository.deleteEmptyRows(from, to);
+        eventPublisher.publishEvent(new SalesRollupChangedEvent(from, to));
+    }
+
+    /**
+     * Backfill: rebuild the whole rollup from the first order up to today
+     */
+    @Transactional
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        Optional<Order> firstOrder = orderRepository.findFirstByOrderByCreatedAtAsc();
+
+        rollupRepository.deleteAllInBatch();
+        if (firstOrder.isPresent()) {
+            rollUp(toLocalDate(firstOrder.get().getCreatedAt()), today);
+        } else {
+            eventPublisher.publishEvent(new SalesRollupChangedEvent(today, today));
+        }
+        log.info("Rebuilt daily sales rollup up to {}", today);
+    }
+
+    /**
+     * Nightly job: re-aggregate the last few days so they are sealed before leaving the live window
+     */
+    @Scheduled(cron = "${app.analytics.rollup.cron:0 5 0 * * *}")
+    @Transactional
+    public void rollUpRecentDays() {
+        LocalDate today = LocalDate.now();
+        rollUp(today.minusDays(lookbackDays), today);
+    }
+
+    /**
+     * Make the row key unique before any order is applied. Rows duplicated by older versions block the
+     * index; the rollup is derived data, so it is cleared and rebuilt by {@link #backfillIfEmpty}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(1)
+    public void createKeyIndexes() {
+        try {
+            rollupRepository.createKeyIndexes();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Daily sales rollup has duplicate rows, clearing it for a rebuild");
+            rollupRepository.deleteAllInBatch();
+            rollupRepository.createKeyIndexes();
+        } catch (DataAccessException e) {
+            log.error("Could not create the daily sales rollup key indexes, rollup updates will fail", e);
+        }
+    }
+
+    /**
+     * Backfill on first start, when the rollup table is still empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(2)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    private void apply(Order order, OrderStatus status, int sign) {
+        LocalDate day = toLocalDate(order.getCreatedAt());
+        BigDecimal total = order.getTotal().multiply(BigDecimal.valueOf(sign));
+
+        rollupRepository.addOrderTotals(UUID.randomUUID(), day, status.name(), total, sign);
+
+        if (order.getOrderItems() == null) {
+            return;
+        }
+
+        for (OrderItem item : order.getOrderItems()) {
+            long units = (long) item.getQuantity() * sign;
+            BigDecimal revenue = item.getUnitPrice()
+                    .multiply(BigDecimal.valueOf(item.getQuantity()))
+                    .multiply(BigDecimal.valueOf(sign));
+
+            rollupRepository.addProductTotals(UUID.randomUUID(), day, item.getProduct().getId(),
+                    status.name(), revenue, units, sign);
+        }
+    }
+
+    // Merge rollup rows of days in [from, to) before the live window with live rows inside it,
+    // keyed by the given function
+    private <T, K> List<T> merge(LocalDate from, LocalDate to,
+                                 RangeQuery<LocalDate, T> rollupQuery,
+                                 RangeQuery<ZonedDateTime, T> liveQuery,
+                                 Function<T, K> key,
+                                 BinaryOperator<T> combine) {
+        LocalDate rollupTo = earlier(to, liveFrom());
+        LocalDate liveStart = later(from, liveFrom());
+        Map<K, T> merged = new LinkedHashMap<>();
+
+        if (from.isBefore(rollupTo)) {
+            for (T row : rollupQuery.find(from, rollupTo)) {
+                merged.merge(key.apply(row), row, combine);
+            }
+        }
+        if (liveStart.isBefore(to)) {
+            for (T row : liveQuery.find(TimeRange.startOf(liveStart), TimeRange.startOf(to))) {
+                merged.merge(key.apply(row), row, combine);
+            }
+        }
+
+        return new ArrayList<>(merged.values());
+    }
+
+    private boolean isLive(Order order) {
+        return !toLocalDate(order.getCreatedAt()).isBefore(liveFrom());
+    }
+
+    private static LocalDate liveFrom() {
+        return LocalDate.now().minusDays(LIVE_DAYS - 1);
+    }
+
+    private static ZonedDateTime liveTo() {
+        return TimeRange.startOf(LocalDate.now().plusDays(1));
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate toLocalDate(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(zone()).toLocalDate();
+    }
+
+    // The zone orders are bucketed into days in, by both the order updates and the re-aggregation
+    private static ZoneId zone() {
+        return ZoneId.systemDefault();
+    }
+
+    @FunctionalInterface
+    private interface RangeQuery<B, T> {
+        List<T> find(B from, B to);
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.api.event.OrderTotalsChangedEvent;
+import org.example.api.model.DashboardCounters;
+import org.example.api.repository.DashboardCountersRepository;
+import org.example.api.repository.OrderRepository;
+import org.example.api.repository.ProductRepository;
+import org.example.api.repository.UserRepository;
+import org.example.api.repository.projection.OrderTotals;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Running order totals for the dashboard summary.
+ * The totals live in a single dashboard_counters row and are mirrored in memory so reads never touch
+ * the database. Committed order changes go to the mirror at once and are written to the row in batches,
+ * one atomic increment per flush, so checkouts never queue on the row lock. The mirror is refreshed
+ * from the row periodically (to pick up writes from other instances) and the row itself is
+ * reconciled against the orders table by a slower job, which also covers changes not yet flushed
+ * when an instance stopped. Client and product counts are kept alongside and refreshed with the mirror.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardCounterService {
+    private final DashboardCountersRepository countersRepository;
+    private final OrderRepository orderRepository;
+
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+
+    private final AtomicReference<Totals> mirror = new AtomicReference<>();
+    // Committed changes not yet written to the row
+    private final AtomicReference<Totals> pending = new AtomicReference<>(Totals.ZERO);
+    // Held while writing to the row, so a reconciliation never overlaps a flush of this instance
+    private final Object flushLock = new Object();
+
+    // Client and product counts, refreshed with the mirror rather than counted on every read
+    private volatile Counts counts;
+
+    /**
+     * Current totals, served from memory
+     */
+    public Totals getTotals() {
+        Totals totals = mirror.get();
+        if (totals == null) {
+            refresh();
+            totals = mirror.get();
+        }
+
+        return totals != null ? totals : Totals.of(orderRepository.sumAllTotals());
+    }
+
+    /**
+     * Current client and product counts, as of the last refresh
+     */
+    public Counts getCounts() {
+        Counts current = counts;
+        if (current == null) {
+            current = countEntities();
+        }
+
+        return current;
+    }
+
+    /**
+     * Add a committed order change to the totals. Only touches memory: the row is written by {@link #flush}.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderTotalsChanged(OrderTotalsChangedEvent event) {
+        Totals change = new Totals(event.revenue(), event.orders());
+        pending.accumulateAndGet(change, Totals::plus);
+        mirror.updateAndGet(totals -> totals == null ? null : totals.plus(change));
+    }
+
+    /**
+     * Write the pending changes to the row in one increment. Also runs on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.counters.flush-ms:1000}")
+    @EventListener(ContextClosedEvent.class)
+    @Transactional
+    public void flush() {
+        synchronized (flushLock) {
+            Totals change = pending.getAndSet(Totals.ZERO);
+            if (change.orders() == 0 && change.revenue().signum() == 0) {
+                return;
+            }
+
+            // Put the changes back if they do not commit; a missing row is created by the next reconciliation,
+            // which also covers them
+            afterRollback(() -> pending.accumulateAndGet(change, Totals::plus));
+            countersRepository.increment(DashboardCounters.SINGLETON_ID, change.revenue(), change.orders());
+        }
+    }
+
+    /**
+     * Reload the in-memory mirror from the persisted row
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.counters.refresh-ms:30000}")
+    public void refresh() {
+        countersRepository.findById(DashboardCounters.SINGLETON_ID)
+                .ifPresent(counters -> mirror.set(new Totals(counters.getTotalRevenue(), counters.getTotalOrders())
+                        .plus(pending.get())));
+        counts = countEntities();
+    }
+
+    /**
+     * Recompute the totals from the orders table, correcting any drift
+     * (for example orders written outside this API)
+     */
+    @Scheduled(cron = "${app.dashboard.counters.reconcile-cron:0 0 * * * *}")
+    @Transactional
+    public void reconcile() {
+        synchronized (flushLock) {
+            // The orders table already holds the pending changes
+            pending.set(Totals.ZERO);
+
+            // The sums are read and written in one statement, which waits for any increment holding the row
+            // and so always includes the orders that increment was for
+            Totals before = countersRepository.findById(DashboardCounters.SINGLETON_ID)
+                    .map(counters -> new Totals(counters.getTotalRevenue(), counters.getTotalOrders()))
+                    .orElse(null);
+            if (before == null) {
+                DashboardCounters counters = new DashboardCounters();
+                counters.setId(DashboardCounters.SINGLETON_ID);
+                counters.setTotalRevenue(BigDecimal.ZERO);
+                counters.setTotalOrders(0);
+                countersRepository.saveAndFlush(counters);
+                before = Totals.ZERO;
+            }
+            countersRepository.reconcile(DashboardCounters.SINGLETON_ID, ZonedDateTime.now());
+            DashboardCounters counters = countersRepository.findById(DashboardCounters.SINGLETON_ID).orElseThrow();
+            Totals totals = new Totals(counters.getTotalRevenue(), counters.getTotalOrders());
+
+            // Keep the changes committed since, which are not in the sums
+            afterCommit(() -> mirror.set(totals.plus(pending.get())));
+            Totals delta = totals.minus(before);
+            log.info("Reconciled dashboard counters: {} orders, corrected by {} orders and {} revenue",
+                    totals.orders(), delta.orders(), delta.revenue());
+        }
+    }
+
+    /**
+     * Load the counters on startup, creating the row on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        if (countersRepository.existsById(DashboardCounters.SINGLETON_ID)) {
+            refresh();
+        } else {
+            reconcile();
+        }
+    }
+
+    private Counts countEntities() {
+        return new Counts(userRepository.count(), productRepository.count());
+    }
+
+    // Only let the mirror see changes that were actually committed
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    public record Totals(BigDecimal revenue, long orders) {
+        static final Totals ZERO = new Totals(BigDecimal.ZERO, 0);
+
+        static Totals of(OrderTotals orderTotals) {
+            BigDecimal revenue = orderTotals.getRevenue() != null ? orderTotals.getRevenue() : BigDecimal.ZERO;
+            return new Totals(revenue, orderTotals.getOrderCount());
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(revenue.add(other.revenue), orders + other.orders);
+        }
+
+        Totals minus(Totals other) {
+            return new Totals(revenue.subtract(other.revenue), orders - other.orders);
+        }
+    }
+
+    public record Counts(long clients, long products) {
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.api.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.api.dto.*;
+import org.example.api.exception.DashboardUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds every tile of the home dashboard at once.
+ * Tiles are computed concurrently, each in its own read-only transaction, so the response
+ * takes as long as the slowest tile rather than the sum of all of them.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardOverviewService {
+    private final HomeService homeService;
+
+    private static final int TILES = 5;
+
+    // At least one thread per tile, so a single overview is built in one wave
+    @Value("${app.dashboard.overview.threads:" + TILES + "}")
+    private int threads;
+
+    // Tiles waiting for a thread; beyond this, tiles run on the requesting thread instead
+    @Value("${app.dashboard.overview.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${app.dashboard.overview.timeout-ms:10000}")
+    private long timeoutMs;
+
+    // Owned here rather than exposed as a bean, which would replace Spring's default task executor
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(threads, TILES));
+        executor.setMaxPoolSize(Math.max(threads, TILES));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("dashboard-");
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Get the summary, monthly revenue, recent orders, inventory alert and category tiles
+     *
+     * @throws DashboardUnavailableException if the tiles do not finish in time
+     */
+    public DashboardOverviewDTO getOverview() {
+        List<CompletableFuture<?>> tiles = new ArrayList<>();
+        try {
+            CompletableFuture<DashboardSummaryDTO> summary = submit(tiles, homeService::getDashboardSummary);
+            CompletableFuture<List<MonthlyRevenueDTO>> revenue = submit(tiles, homeService::getMonthlyRevenue);
+            CompletableFuture<List<RecentOrderDTO>> recentOrders = submit(tiles, homeService::getRecentOrders);
+            CompletableFuture<List<InventoryAlertDTO>> inventoryAlert = submit(tiles, homeService::getInventoryAlert);
+            CompletableFuture<List<CategorySalesDTO>> categories = submit(tiles, homeService::getCategorySalesPerformance);
+
+            CompletableFuture.allOf(tiles.toArray(new CompletableFuture[0])).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return new DashboardOverviewDTO(summary.join(), revenue.join(), recentOrders.join(),
+                    inventoryAlert.join(), categories.join());
+        } catch (TimeoutException e) {
+            throw unavailable(tiles, "Dashboard took too long to build, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unavailable(tiles, "Dashboard build was interrupted");
+        } catch (ExecutionException e) {
+            // Surface the tile's own exception rather than the wrapper
+            tiles.forEach(tile -> tile.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(List<CompletableFuture<?>> tiles, Supplier<T> tile) {
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(tile, executor);
+        tiles.add(future);
+        return future;
+    }
+
+    // A cancelled tile that is still queued is skipped when its turn comes, so it never takes a connection
+    private static DashboardUnavailableException unavailable(List<CompletableFuture<?>> tiles, String message) {
+        tiles.forEach(tile -> tile.cancel(false));
+        return new DashboardUnavailableException(message);
+    }
+}
@@ -3,15 +3,15 @@ package org.example.api.service;
 import lombok.RequiredArgsConstructor;
 import org.example.api.dto.*;
 import org.example.api.model.Order;
-import org.example.api.model.OrderItem;
 import org.example.api.model.Product;
 import org.example.api.repository.OrderRepository;
 import org.example.api.repository.ProductRepository;
-import org.example.api.repository.UserRepository;
+import org.example.api.repository.projection.DailyOrderTotals;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.ZonedDateTime;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -19,48 +19,39 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class HomeService {
-    private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
+    private final DailySalesRollupService rollupService;
+    private final DashboardCounterService counterService;
 
     /**
      * Get dashboard summary with total counts and revenue
      */
     public DashboardSummaryDTO getDashboardSummary() {
-        // Get total clients (users)
-        long totalClients = userRepository.count();
+        // Every figure comes from the running counters, nothing is counted per request
+        DashboardCounterService.Counts counts = counterService.getCounts();
+        DashboardCounterService.Totals totals = counterService.getTotals();
 
-        // Get total products
-        long totalProducts = productRepository.count();
-
-        // Calculate total revenue and total sales
-        List<Order> allOrders = orderRepository.findAll();
-        BigDecimal totalRevenue = allOrders.stream()
-                .map(Order::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        long totalSales = allOrders.size();
-
-        return new DashboardSummaryDTO(totalClients, totalProducts, totalRevenue, totalSales);
+        return new DashboardSummaryDTO(counts.clients(), counts.products(), totals.revenue(), totals.orders());
     }
 
     /**
      * Get monthly revenue for the last 6 months
      */
+    @Transactional(readOnly = true)
     public List<MonthlyRevenueDTO> getMonthlyRevenue() {
-        // Get all orders from the last 6 months
-        ZonedDateTime sixMonthsAgo = ZonedDateTime.now().minusMonths(6);
-        List<Order> orders = orderRepository.findAll().stream()
-                .filter(order -> order.getCreatedAt().isAfter(sixMonthsAgo))
-                .collect(Collectors.toList());
+        // Get daily totals for the last 6 months
+        LocalDate sixMonthsAgo = LocalDate.now().minusMonths(6);
+        List<DailyOrderTotals> dailyTotals = rollupService.getDailyTotals(sixMonthsAgo);
 
-        // Group orders by month and calculate total revenue
+        // Group days by month and calculate total revenue
         Map<String, BigDecimal> monthlyRevenue = new HashMap<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
 
-        for (Order order : orders) {
-            String month = formatter.format(order.getCreatedAt());
+        for (DailyOrderTotals day : dailyTotals) {
+            String month = formatter.format(day.getOrderDate());
             BigDecimal current = monthlyRevenue.getOrDefault(month, BigDecimal.ZERO);
-            monthlyRevenue.put(month, current.add(order.getTotal()));
+            monthlyRevenue.put(month, current.add(day.getRevenue()));
         }
 
         // Convert to DTOs
@@ -71,14 +62,12 @@ public class HomeService {
     }
 
     /**
-     * Get recent orders (latest 10)
+     * Get recent orders (latest 5)
      */
+    @Transactional(readOnly = true)
     public List<RecentOrderDTO> getRecentOrders() {
-        // Get the 10 most recent orders
-        List<Order> recentOrders = orderRepository.findAll().stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(5)
-                .collect(Collectors.toList());
+        // Get the 5 most recent orders
+        List<Order> recentOrders = orderRepository.findTop5ByOrderByCreatedAtDesc();
 
         // Convert to DTOs
         return recentOrders.stream()
@@ -98,13 +87,12 @@ public class HomeService {
     /**
  * Get products with low stock (inventory alert)
  */
+@Transactional(readOnly = true)
 public List<InventoryAlertDTO> getInventoryAlert() {
     int lowStockThreshold = 10; // Configure as needed
 
     // Find products with stock below threshold
-    List<Product> lowStockProducts = productRepository.findAll().stream()
-            .filter(product -> product.getStock() <= lowStockThreshold)
-            .collect(Collectors.toList());
+    List<Product> lowStockProducts = productRepository.findByStockLessThanEqual(lowStockThreshold);
 
     // Convert to DTOs
     return lowStockProducts.stream()
@@ -123,37 +111,16 @@ public List<InventoryAlertDTO> getInventoryAlert() {
     /**
      * Get sales performance by category
      */
+    @Transactional(readOnly = true)
     public List<CategorySalesDTO> getCategorySalesPerformance() {
-        // Get all orders with order items
-        List<Order> orders = orderRepository.findAll();
-        Map<UUID, CategorySalesDTO> categorySalesMap = new HashMap<>();
-
-        // Process each order item
-        for (Order order : orders) {
-            for (OrderItem item : order.getOrderItems()) {
-                UUID categoryId = item.getProduct().getCategory().getId();
-                String categoryName = item.getProduct().getCategory().getName();
-                BigDecimal itemTotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-
-                // Update or create category sales data
-                if (categorySalesMap.containsKey(categoryId)) {
-                    CategorySalesDTO existing = categorySalesMap.get(categoryId);
-                    existing.setTotalOrders(existing.getTotalOrders() + 1);
-                    existing.setTotalRevenue(existing.getTotalRevenue().add(itemTotal));
-                } else {
-                    categorySalesMap.put(categoryId, new CategorySalesDTO(
-                            categoryId,
-                            categoryName,
-                            1,
-                            itemTotal
-                    ));
-                }
-            }
-        }
-
-        // Convert to list and sort by revenue
-        return categorySalesMap.values().stream()
-                .sorted((a, b) -> b.getTotalRevenue().compareTo(a.getTotalRevenue()))
+        // All-time sales per category, already sorted by revenue
+        return rollupService.getCategorySales(LocalDate.EPOCH).stream()
+                .map(row -> new CategorySalesDTO(
+                        row.getCategoryId(),
+                        row.getCategoryName(),
+                        row.getItemCount(),
+                        row.getRevenue()
+                ))
                 .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package org.example.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.api.dto.OrderDTO;
+import org.example.api.dto.OrderItemDTO;
+import org.example.api.model.Order.OrderStatus;
+import org.example.api.repository.OrderRepository;
+import org.example.api.repository.projection.OrderExportRow;
+import org.example.api.util.CsvWriter;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams orders out for bulk consumers such as finance. Rows go from a forward-only database cursor
+ * straight to the output; only the order being written is held in memory, so an export of any range
+ * runs in constant memory. Writes block while the client is not reading, which in turn stops the
+ * cursor from fetching.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+    private static final List<String> CSV_HEADER = List.of("order_id", "created_at", "status", "user_id",
+            "user_name", "user_email", "order_total", "item_id", "product_id", "product_name", "quantity",
+            "unit_price", "subtotal");
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        // One line per order item, repeating the order columns
+        CSV("text/csv", "csv"),
+        // One order per line, shaped like the order API responses
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            return switch (value.toLowerCase()) {
+                case "csv" -> CSV;
+                case "ndjson" -> NDJSON;
+                default -> throw new IllegalArgumentException("format must be csv or ndjson");
+            };
+        }
+    }
+
+    /**
+     * Write the orders matching the filters (null filters match everything), oldest first
+     */
+    public void export(Format format, UUID userId, OrderStatus status, ZonedDateTime startDate,
+                       ZonedDateTime endDate, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                writeCsv(writer, userId, status, startDate, endDate);
+            } else {
+                writeNdjson(writer, userId, status, startDate, endDate);
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor and its transaction are closed by now
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Writer writer, UUID userId, OrderStatus status, ZonedDateTime startDate,
+                          ZonedDateTime endDate) throws IOException {
+        CsvWriter csv = new CsvWriter(writer);
+        csv.writeRecord(CSV_HEADER);
+        orderRepository.forEachExportRow(userId, status, startDate, endDate, row -> {
+            BigDecimal subtotal = row.getItemId() != null
+                    ? row.getUnitPrice().multiply(BigDecimal.valueOf(row.getQuantity()))
+                    : null;
+            List<Object> record = new ArrayList<>(CSV_HEADER.size());
+            record.add(row.getOrderId());
+            record.add(row.getCreatedAt());
+            record.add(row.getStatus());
+            record.add(row.getUserId());
+            record.add(row.getUserFirstName() + " " + row.getUserLastName());
+            record.add(row.getUserEmail());
+            record.add(row.getTotal());
+            record.add(row.getItemId());
+            record.add(row.getProductId());
+            record.add(row.getProductName());
+            record.add(row.getQuantity());
+            record.add(row.getUnitPrice());
+            record.add(subtotal);
+            write(() -> csv.writeRecord(record));
+        });
+    }
+
+    private void writeNdjson(Writer writer, UUID userId, OrderStatus status, ZonedDateTime startDate,
+                             ZonedDateTime endDate) throws IOException {
+        // Rows of an order are adjacent, so an order is complete when the next one starts
+        OrderDTO[] current = new OrderDTO[1];
+        orderRepository.forEachExportRow(userId, status, startDate, endDate, row -> {
+            if (current[0] == null || !current[0].getId().equals(row.getOrderId())) {
+                if (current[0] != null) {
+                    writeLine(writer, current[0]);
+                }
+                current[0] = new OrderDTO(row.getOrderId(), row.getUserId(),
+                        row.getUserFirstName() + " " + row.getUserLastName(), row.getUserEmail(), row.getTotal(),
+                        row.getCreatedAt().atZone(ZoneOffset.UTC), row.getStatus(), new ArrayList<>());
+            }
+            if (row.getItemId() != null) {
+                current[0].getItems().add(new OrderItemDTO(row.getItemId(), row.getProductId(), row.getProductName(),
+                        row.getQuantity(), row.getUnitPrice(),
+                        row.getUnitPrice().multiply(BigDecimal.valueOf(row.getQuantity()))));
+            }
+        });
+        if (current[0] != null) {
+            writeLine(writer, current[0]);
+        }
+    }
+
+    private void writeLine(Writer writer, OrderDTO order) {
+        write(() -> {
+            writer.write(objectMapper.writeValueAsString(order));
+            writer.write('\n');
+        });
+    }
+
+    private interface IOAction {
+        void run() throws IOException;
+    }
+
+    // Rows arrive in a callback that cannot throw checked exceptions
+    private static void write(IOAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
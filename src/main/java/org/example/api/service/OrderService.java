@@ -1,54 +1,126 @@
 package org.example.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.api.dto.CursorPageDTO;
 import org.example.api.dto.OrderDTO;
+import org.example.api.dto.OrderItemDTO;
+import org.example.api.event.OrderChangedEvent;
+import org.example.api.event.OrderTotalsChangedEvent;
 import org.example.api.model.Order;
 import org.example.api.model.Order.OrderStatus;
+import org.example.api.model.OrderItem;
+import org.example.api.model.User;
+import org.example.api.payload.request.order.CreateOrderItemRequest;
+import org.example.api.payload.request.order.OrderPageRequest;
 import org.example.api.repository.OrderRepository;
+import org.example.api.repository.OrderSpecifications;
+import org.example.api.repository.ProductRepository;
 import org.example.api.repository.UserRepository;
+import org.example.api.service.StockService.Reservation;
+import org.example.api.util.KeysetCursor;
+import org.example.api.util.OrderPageQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
+    // Order ids per item statement, well below the bind parameter limits of the drivers
+    private static final int ITEM_CHUNK_SIZE = 1000;
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final StockService stockService;
+    private final DailySalesRollupService rollupService;
+    private final CustomerFirstOrderService firstOrderService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(OrderDTO::fromEntity)
-                .collect(Collectors.toList());
-    }
+    @Value("${app.orders.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.orders.page.max-size:200}")
+    private int maxPageSize;
 
+    @Transactional(readOnly = true)
     public Optional<OrderDTO> getOrderById(UUID id) {
-        return orderRepository.findById(id)
-                .map(OrderDTO::fromEntity);
+        return orderRepository.findWithUserById(id)
+                .map(order -> toDTOs(List.of(order)).get(0));
     }
 
+    @Transactional(readOnly = true)
     public List<OrderDTO> getOrdersByUser(UUID userId) {
-        return orderRepository.findByUserId(userId).stream()
-                .map(OrderDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toDTOs(orderRepository.findByUserId(userId));
     }
 
+    @Transactional(readOnly = true)
     public List<OrderDTO> getOrdersByStatus(OrderStatus status) {
-        return orderRepository.findByStatus(status).stream()
-                .map(OrderDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toDTOs(orderRepository.findByStatus(status));
     }
 
+    @Transactional(readOnly = true)
     public List<OrderDTO> getOrdersByDateRange(ZonedDateTime start, ZonedDateTime end) {
-        return orderRepository.findByCreatedAtBetween(start, end).stream()
-                .map(OrderDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toDTOs(orderRepository.findByCreatedAtBetween(start, end));
+    }
+
+    /**
+     * Place an order for a user. The items are taken out of stock and priced from the products in the same
+     * transaction that records the order, so the order either exists with its stock reserved or not at all.
+     * Items of the same product are combined into one order item.
+     *
+     * @throws org.example.api.exception.StockAdjustmentException when an item is missing, archived or out of stock
+     */
+    @Transactional
+    public OrderDTO createOrder(UUID userId, List<CreateOrderItemRequest> items) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        Map<UUID, Integer> quantities = new HashMap<>();
+        items.forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Math::addExact));
+        List<Reservation> reservations = stockService.reserve(quantities);
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.NEW);
+        order.setOrderItems(new ArrayList<>(reservations.size()));
+        BigDecimal total = BigDecimal.ZERO;
+        for (Reservation reservation : reservations) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(productRepository.getReferenceById(reservation.productId()));
+            item.setQuantity(reservation.quantity());
+            item.setUnitPrice(reservation.unitPrice());
+            order.getOrderItems().add(item);
+            total = total.add(reservation.unitPrice().multiply(BigDecimal.valueOf(reservation.quantity())));
+        }
+        order.setTotal(total);
+
+        // Order and items are inserted as JDBC batches when the transaction flushes
+        Order savedOrder = orderRepository.save(order);
+        rollupService.applyCreate(savedOrder);
+        firstOrderService.applyCreate(savedOrder);
+        // The dashboard counters take this after commit and batch it into their single row
+        eventPublisher.publishEvent(new OrderTotalsChangedEvent(savedOrder.getTotal(), 1));
+        eventPublisher.publishEvent(new OrderChangedEvent(savedOrder.getId()));
+
+        List<OrderItemDTO> itemDTOs = new ArrayList<>(reservations.size());
+        for (int i = 0; i < reservations.size(); i++) {
+            itemDTOs.add(OrderItemDTO.fromEntity(savedOrder.getOrderItems().get(i), reservations.get(i).name()));
+        }
+        return OrderDTO.fromEntity(savedOrder, itemDTOs);
     }
 
+    @Transactional
     public OrderDTO updateOrderStatus(UUID id, OrderStatus status) {
         Optional<Order> orderOpt = orderRepository.findById(id);
 
@@ -57,24 +129,72 @@ public class OrderService {
         }
 
         Order order = orderOpt.get();
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
 
         Order savedOrder = orderRepository.save(order);
-        return OrderDTO.fromEntity(savedOrder);
+        rollupService.applyStatusChange(savedOrder, previousStatus);
+        eventPublisher.publishEvent(new OrderChangedEvent(id));
+        return toDTOs(List.of(savedOrder)).get(0);
     }
 
+    @Transactional
     public boolean deleteOrder(UUID id) {
-        if (!orderRepository.existsById(id)) {
+        Optional<Order> orderOpt = orderRepository.findById(id);
+
+        if (orderOpt.isEmpty()) {
             return false;
         }
 
-        orderRepository.deleteById(id);
+        rollupService.applyDelete(orderOpt.get());
+        firstOrderService.applyDelete(orderOpt.get());
+        orderRepository.delete(orderOpt.get());
+        eventPublisher.publishEvent(new OrderTotalsChangedEvent(orderOpt.get().getTotal().negate(), -1));
+        eventPublisher.publishEvent(new OrderChangedEvent(id));
         return true;
     }
 
-    public List<OrderDTO> searchOrders(UUID userId, OrderStatus status, ZonedDateTime startDate, ZonedDateTime endDate) {
-        return orderRepository.searchOrders(userId, status, startDate, endDate).stream()
-                .map(OrderDTO::fromEntity)
+    public OrderPageQuery resolvePage(OrderPageRequest page) {
+        int limit = Math.min(Math.max(page.getLimit() != null ? page.getLimit() : defaultPageSize, 1), maxPageSize);
+        KeysetCursor after = page.getCursor() != null ? KeysetCursor.decode(page.getCursor()) : null;
+        return new OrderPageQuery(after, limit, page.isIncludeTotal());
+    }
+
+    /**
+     * One page of the orders matching the filters (null filters match everything), newest first,
+     * read with a keyset seek from the page's cursor. Matching orders are only counted on request.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderDTO> findOrders(UUID userId, OrderStatus status, ZonedDateTime startDate,
+                                              ZonedDateTime endDate, OrderPageQuery page) {
+        Specification<Order> filter = OrderSpecifications.search(userId, status, startDate, endDate);
+        KeysetScrollPosition position = page.position();
+        Window<Order> window = orderRepository.findBy(filter.and(OrderSpecifications.fetchUser()),
+                query -> query.sortBy(OrderPageQuery.ORDER).limit(page.limit()).scroll(position));
+
+        List<OrderDTO> items = toDTOs(window.getContent());
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? OrderPageQuery.cursorAt(window.positionAt(window.size() - 1)).encode()
+                : null;
+        Long total = page.includeTotal() ? orderRepository.count(filter) : null;
+        return new CursorPageDTO<>(items, nextCursor, nextCursor != null, total);
+    }
+
+    /**
+     * DTOs of orders whose user is already loaded. The items and their product names are read with one
+     * statement per chunk of orders, instead of loading each order's items and each item's product.
+     */
+    private List<OrderDTO> toDTOs(List<Order> orders) {
+        Map<UUID, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        List<UUID> ids = orders.stream().map(Order::getId).toList();
+        for (int from = 0; from < ids.size(); from += ITEM_CHUNK_SIZE) {
+            orderRepository.findItemRows(ids.subList(from, Math.min(from + ITEM_CHUNK_SIZE, ids.size())))
+                    .forEach(row -> itemsByOrder.computeIfAbsent(row.getOrderId(), id -> new ArrayList<>())
+                            .add(OrderItemDTO.fromRow(row)));
+        }
+
+        return orders.stream()
+                .map(order -> OrderDTO.fromEntity(order, itemsByOrder.getOrDefault(order.getId(), new ArrayList<>())))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,13 @@
 package org.example.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.api.event.ProductChangedEvent;
+import org.example.api.exception.ProductNotFoundException;
 import org.example.api.model.Product;
 import org.example.api.model.ProductImage;
 import org.example.api.repository.ProductImageRepository;
 import org.example.api.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -22,12 +25,13 @@ public class ProductImageService {
     private final ProductImageRepository productImageRepository;
     private final ProductRepository productRepository;
     private final S3Service s3Service;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProductImage addImageToProduct(UUID productId, MultipartFile file) throws IOException {
         Optional<Product> productOpt = productRepository.findById(productId);
         if (productOpt.isEmpty()) {
-            throw new RuntimeException("Product not found with ID: " + productId);
+            throw new ProductNotFoundException();
         }
 
         Product product = productOpt.get();
@@ -46,7 +50,9 @@ public class ProductImageService {
         product.addImage(image);
 
         // Save the image
-        return productImageRepository.save(image);
+        ProductImage savedImage = productImageRepository.save(image);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        return savedImage;
     }
 
     @Transactional
@@ -72,6 +78,7 @@ public class ProductImageService {
 
                 // Delete from database
                 productImageRepository.delete(image);
+                eventPublisher.publishEvent(new ProductChangedEvent(image.getProduct().getId()));
 
                 System.out.println("Image with ID " + imageId + " deleted successfully");
             } catch (Exception e) {
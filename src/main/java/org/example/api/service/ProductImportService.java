@@ -0,0 +1,341 @@
+package org.example.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.api.dto.*;
+import org.example.api.event.ProductsImportedEvent;
+import org.example.api.payload.request.product.BulkProductRow;
+import org.example.api.util.CsvReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products in bulk from a JSON array or CSV, reading the input one row at a time. References are
+ * resolved against the cached categories, colors and sizes, and rows are written with JDBC batch inserts
+ * and updates, one transaction per batch. Invalid rows are reported and skipped; the others are written.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+    private static final String INSERT_SQL =
+            "INSERT INTO product (id, name, price, stock, description, archived, featured, " +
+            "category_id, color_id, size_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Null values leave the column as it is, like a PATCH of the product
+    private static final String UPDATE_SQL =
+            "UPDATE product SET name = COALESCE(?, name), price = COALESCE(?, price), stock = COALESCE(?, stock), " +
+            "description = COALESCE(?, description), archived = COALESCE(?, archived), " +
+            "featured = COALESCE(?, featured), category_id = COALESCE(?, category_id), " +
+            "color_id = COALESCE(?, color_id), size_id = COALESCE(?, size_id), version = version + 1 WHERE id = ?";
+
+    private static final int[] INSERT_TYPES = {Types.OTHER, Types.VARCHAR, Types.NUMERIC, Types.INTEGER, Types.VARCHAR,
+            Types.BOOLEAN, Types.BOOLEAN, Types.OTHER, Types.OTHER, Types.OTHER, Types.TIMESTAMP_WITH_TIMEZONE};
+    private static final int[] UPDATE_TYPES = {Types.VARCHAR, Types.NUMERIC, Types.INTEGER, Types.VARCHAR,
+            Types.BOOLEAN, Types.BOOLEAN, Types.OTHER, Types.OTHER, Types.OTHER, Types.OTHER};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final CategoryService categoryService;
+    private final ColorService colorService;
+    private final SizeService sizeService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.products.import.batch-size:500}")
+    private int batchSize;
+
+    // A validated row, ready to be bound to INSERT_SQL or UPDATE_SQL
+    private record PendingRow(int row, boolean insert, Object[] values) {
+    }
+
+    // Ids of a reference type, and the same ids by lower-case name
+    private record References(String label, Set<UUID> ids, Map<String, UUID> idsByName) {
+    }
+
+    /**
+     * Rows of a JSON array of objects, parsed as they are read
+     */
+    public Iterator<Map<String, Object>> readJson(InputStream input) throws IOException {
+        try {
+            return objectMapper.readerFor(Map.class).readValues(input);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON input");
+        }
+    }
+
+    /**
+     * Rows of a CSV with a header row naming the {@link BulkProductRow} properties, parsed as they are read.
+     * Empty cells are null.
+     */
+    public Iterator<Map<String, Object>> readCsv(InputStream input) {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return csv.hasNext();
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                Map<String, Object> row = new LinkedHashMap<>();
+                csv.next().forEach((column, value) -> row.put(column, value.isBlank() ? null : value));
+                return row;
+            }
+        };
+    }
+
+    /**
+     * Validate and write every row. After each batch is committed, {@code progress} receives the counts
+     * so far and the errors found since the previous call.
+     */
+    public BulkImportResultDTO importProducts(Iterator<Map<String, Object>> rows, Consumer<BulkImportResultDTO> progress) {
+        References categories = references("Category", categoryService.getAllCategories().stream()
+                .collect(Collectors.toMap(CategoryDTO::getId, CategoryDTO::getName)));
+        References colors = references("Color", colorService.getAllColors().stream()
+                .collect(Collectors.toMap(ColorDTO::getId, ColorDTO::getName)));
+        References sizes = references("Size", sizeService.getAllSizes().stream()
+                .collect(Collectors.toMap(SizeDTO::getId, SizeDTO::getName)));
+
+        BulkImportResultDTO result = new BulkImportResultDTO(0, 0, 0, 0, new ArrayList<>());
+        List<PendingRow> batch = new ArrayList<>();
+        int reported = 0;
+        int rowNumber = 0;
+
+        while (true) {
+            Map<String, Object> values;
+            try {
+                if (!rows.hasNext()) {
+                    break;
+                }
+                values = rows.next();
+            } catch (RuntimeException e) {
+                // Unreadable input: the rows after it cannot be told apart, stop here
+                fail(result, rowNumber + 1, "Malformed input, import stopped: " + rootMessage(e).lines().findFirst().orElse(""));
+                break;
+            }
+
+            rowNumber++;
+            result.setProcessed(result.getProcessed() + 1);
+            try {
+                batch.add(validate(rowNumber, toRow(values), categories, colors, sizes));
+            } catch (IllegalArgumentException e) {
+                fail(result, rowNumber, e.getMessage());
+            }
+
+            if (batch.size() == batchSize) {
+                write(batch, result);
+                batch.clear();
+                reported = report(result, reported, progress);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, result);
+        }
+        report(result, reported, progress);
+        result.getErrors().sort(Comparator.comparingInt(BulkImportErrorDTO::getRow));
+
+        log.info("Imported products: {} processed, {} inserted, {} updated, {} failed",
+                result.getProcessed(), result.getInserted(), result.getUpdated(), result.getFailed());
+        if (result.getInserted() + result.getUpdated() > 0) {
+            eventPublisher.publishEvent(new ProductsImportedEvent(result.getInserted(), result.getUpdated()));
+        }
+        return result;
+    }
+
+    private BulkProductRow toRow(Map<String, Object> values) {
+        try {
+            return objectMapper.convertValue(values, BulkProductRow.class);
+        } catch (IllegalArgumentException e) {
+            if (e.getCause() instanceof UnrecognizedPropertyException unknown) {
+                throw new IllegalArgumentException("Unknown field: " + unknown.getPropertyName());
+            }
+            if (e.getCause() instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()) {
+                throw new IllegalArgumentException("Invalid value for "
+                        + mapping.getPath().get(mapping.getPath().size() - 1).getFieldName());
+            }
+            throw new IllegalArgumentException("Invalid row");
+        }
+    }
+
+    private PendingRow validate(int rowNumber, BulkProductRow row, References categories, References colors,
+                                References sizes) {
+        boolean insert = row.getId() == null;
+        List<String> problems = new ArrayList<>();
+
+        if (insert && (row.getName() == null || row.getName().isBlank())) {
+            problems.add("Product name is required");
+        } else if (row.getName() != null && (row.getName().isBlank() || row.getName().length() > 100)) {
+            problems.add("Product name must be less than 100 characters");
+        }
+        if (insert && row.getPrice() == null) {
+            problems.add("Price is required");
+        } else if (row.getPrice() != null && row.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            problems.add("Price must be positive");
+        }
+        if (insert && row.getStock() == null) {
+            problems.add("Stock is required");
+        } else if (row.getStock() != null && row.getStock() < 0) {
+            problems.add("Stock must be zero or positive");
+        }
+        if (row.getDescription() != null && row.getDescription().length() > 1000) {
+            problems.add("Description must be less than 1000 characters");
+        }
+
+        UUID categoryId = resolve(categories, row.getCategoryId(), row.getCategory(), problems);
+        UUID colorId = resolve(colors, row.getColorId(), row.getColor(), problems);
+        UUID sizeId = resolve(sizes, row.getSizeId(), row.getSize(), problems);
+        if (insert && categoryId == null && row.getCategoryId() == null && row.getCategory() == null) {
+            problems.add("Category is required");
+        }
+
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", problems));
+        }
+
+        if (insert) {
+            return new PendingRow(rowNumber, true, new Object[]{
+                    UUID.randomUUID(), row.getName(), row.getPrice(), row.getStock(), row.getDescription(),
+                    row.getArchived() != null ? row.getArchived() : false,
+                    row.getFeatured() != null ? row.getFeatured() : false,
+                    categoryId, colorId, sizeId, OffsetDateTime.now()});
+        }
+        return new PendingRow(rowNumber, false, new Object[]{
+                row.getName(), row.getPrice(), row.getStock(), row.getDescription(), row.getArchived(),
+                row.getFeatured(), categoryId, colorId, sizeId, row.getId()});
+    }
+
+    private static UUID resolve(References references, UUID id, String name, List<String> problems) {
+        if (id != null) {
+            if (!references.ids().contains(id)) {
+                problems.add(references.label() + " not found: " + id);
+            }
+            return id;
+        }
+        if (name != null) {
+            UUID byName = references.idsByName().get(name.trim().toLowerCase());
+            if (byName == null) {
+                problems.add(references.label() + " not found: " + name);
+            }
+            return byName;
+        }
+        return null;
+    }
+
+    private static References references(String label, Map<UUID, String> namesById) {
+        Map<String, UUID> idsByName = new HashMap<>();
+        namesById.forEach((id, name) -> idsByName.putIfAbsent(name.trim().toLowerCase(), id));
+        return new References(label, namesById.keySet(), idsByName);
+    }
+
+    /**
+     * Write a batch in one transaction. If it fails, write its rows one by one so only the offending
+     * rows are rejected.
+     */
+    private void write(List<PendingRow> batch, BulkImportResultDTO result) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<PendingRow> inserts = batch.stream().filter(PendingRow::insert).toList();
+        List<PendingRow> updates = batch.stream().filter(row -> !row.insert()).toList();
+        try {
+            List<PendingRow> updated = transaction.execute(status -> {
+                execute(INSERT_SQL, INSERT_TYPES, inserts);
+                return execute(UPDATE_SQL, UPDATE_TYPES, updates);
+            });
+            result.setInserted(result.getInserted() + inserts.size());
+            result.setUpdated(result.getUpdated() + updated.size());
+            updates.stream()
+                    .filter(row -> !updated.contains(row))
+                    .forEach(row -> fail(result, row.row(), "Product not found"));
+        } catch (DataAccessException e) {
+            log.warn("Import batch failed, retrying its {} rows one by one", batch.size(), e);
+            if (batch.size() == 1) {
+                fail(result, batch.get(0).row(), rootMessage(e));
+                return;
+            }
+            for (PendingRow row : batch) {
+                write(List.of(row), result);
+            }
+        }
+    }
+
+    // The rows the statement changed
+    private List<PendingRow> execute(String sql, int[] types, List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Object[] values = rows.get(i).values();
+                for (int column = 0; column < values.length; column++) {
+                    if (values[column] == null) {
+                        ps.setNull(column + 1, types[column]);
+                    } else {
+                        ps.setObject(column + 1, values[column]);
+                    }
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+
+        // Rewritten batches report SUCCESS_NO_INFO rather than a count per row
+        List<PendingRow> changed = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                changed.add(rows.get(i));
+            }
+        }
+        return changed;
+    }
+
+    private static void fail(BulkImportResultDTO result, int row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        result.getErrors().add(new BulkImportErrorDTO(row, message));
+    }
+
+    // Pass the counts so far and the errors not reported yet; returns the number of errors reported
+    private static int report(BulkImportResultDTO result, int reported, Consumer<BulkImportResultDTO> progress) {
+        List<BulkImportErrorDTO> errors = result.getErrors();
+        progress.accept(new BulkImportResultDTO(result.getProcessed(), result.getInserted(), result.getUpdated(),
+                result.getFailed(), List.copyOf(errors.subList(reported, errors.size()))));
+        return errors.size();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.api.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.api.dto.ProductDTO;
+import org.example.api.dto.ProductSearchResultDTO;
+import org.example.api.model.Product;
+import org.example.api.repository.ProductRepository;
+import org.example.api.repository.ProductSpecifications;
+import org.example.api.service.search.ProductSearchHit;
+import org.example.api.service.search.ProductSearchIndex;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+    public static final int DEFAULT_RESULTS = 20;
+    public static final int MAX_RESULTS = 100;
+
+    private final ProductSearchIndex searchIndex;
+    private final ProductRepository productRepository;
+
+    /**
+     * Products matching a free-text query, most relevant first
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSearchResultDTO> search(String query, int limit, boolean includeArchived) {
+        List<ProductSearchHit> hits = searchIndex.search(query.trim(), limit, includeArchived);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> ids = hits.stream().map(ProductSearchHit::productId).toList();
+        Map<UUID, Product> products = productRepository.findAll(
+                        ProductSpecifications.idIn(ids).and(ProductSpecifications.fetchReferences())).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        productRepository.fetchImages(products.values());
+
+        // Keep the ranking of the index; a product deleted since it was indexed is skipped
+        return hits.stream()
+                .filter(hit -> products.containsKey(hit.productId()))
+                .map(hit -> new ProductSearchResultDTO(
+                        ProductDTO.fromEntity(products.get(hit.productId())),
+                        hit.score(),
+                        hit.nameHighlight(),
+                        hit.descriptionHighlight()))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,19 +1,33 @@
 package org.example.api.service;
 
 import lombok.RequiredArgsConstructor;
-import org.example.api.dto.ProductDTO;
+import org.example.api.dto.*;
+import org.example.api.event.ProductChangedEvent;
+import org.example.api.exception.ProductNotFoundException;
 import org.example.api.model.*;
+import org.example.api.payload.request.product.ProductPageRequest;
 import org.example.api.repository.CategoryRepository;
 import org.example.api.repository.ColorRepository;
 import org.example.api.repository.ProductRepository;
+import org.example.api.repository.ProductSpecifications;
 import org.example.api.repository.SizeRepository;
+import org.example.api.util.KeysetCursor;
+import org.example.api.util.ProductPageQuery;
+import org.example.api.util.ProductSort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,19 +38,25 @@ public class ProductService {
     private final CategoryRepository categoryRepository;
     private final ColorRepository colorRepository;
     private final SizeRepository sizeRepository;
+    private final CategoryService categoryService;
+    private final ColorService colorService;
+    private final SizeService sizeService;
     private final S3Service s3Service;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(ProductDTO::fromEntity)
-                .collect(Collectors.toList());
-    }
+    @Value("${app.products.page.default-size:50}")
+    private int defaultPageSize;
 
+    @Value("${app.products.page.max-size:200}")
+    private int maxPageSize;
+
+    @Transactional(readOnly = true)
     public Optional<ProductDTO> getProductById(UUID id) {
-        return productRepository.findById(id)
+        return productRepository.findDetailedById(id)
                 .map(ProductDTO::fromEntity);
     }
 
+    @Transactional
     public ProductDTO createProduct(ProductDTO productDTO) {
         Product product = new Product();
         product.setName(productDTO.getName());
@@ -47,37 +67,54 @@ public class ProductService {
         product.setFeatured(productDTO.getFeatured() != null ? productDTO.getFeatured() : false);
         product.setCreatedAt(ZonedDateTime.now());
     
+        // References are checked against the reference data cache and set by id, without loading them
         // Set category (required)
+        CategoryDTO category = null;
         if (productDTO.getCategory() != null && productDTO.getCategory().getId() != null) {
-            categoryRepository.findById(productDTO.getCategory().getId())
-                    .ifPresent(product::setCategory);
+            category = categoryService.getCategoryById(productDTO.getCategory().getId()).orElse(null);
+            if (category != null) {
+                product.setCategory(categoryRepository.getReferenceById(category.getId()));
+            }
         }
     
         // Set color (optional)
+        ColorDTO color = null;
         if (productDTO.getColor() != null && productDTO.getColor().getId() != null) {
-            colorRepository.findById(productDTO.getColor().getId())
-                    .ifPresent(product::setColor);
+            color = colorService.getColorById(productDTO.getColor().getId()).orElse(null);
+            if (color != null) {
+                product.setColor(colorRepository.getReferenceById(color.getId()));
+            }
         }
     
         // Set size (optional)
+        SizeDTO size = null;
         if (productDTO.getSize() != null && productDTO.getSize().getId() != null) {
-            sizeRepository.findById(productDTO.getSize().getId())
-                    .ifPresent(product::setSize);
+            size = sizeService.getSizeById(productDTO.getSize().getId()).orElse(null);
+            if (size != null) {
+                product.setSize(sizeRepository.getReferenceById(size.getId()));
+            }
         }
     
         Product savedProduct = productRepository.save(product);
-        return ProductDTO.fromEntity(savedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId()));
+        return ProductDTO.fromEntity(savedProduct, category, color, size);
     }
 
+    @Transactional
     public ProductDTO updateProduct(ProductDTO productDTO) {
         Optional<Product> productOpt = productRepository.findById(productDTO.getId());
 
         if (productOpt.isEmpty()) {
-            throw new RuntimeException("Product not found");
+            throw new ProductNotFoundException();
         }
 
         Product product = productOpt.get();
 
+        // The caller's copy is stale, applying it would overwrite the changes made since
+        if (productDTO.getVersion() != null && productDTO.getVersion() != product.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, product.getId());
+        }
+
         if (productDTO.getName() != null) {
             product.setName(productDTO.getName());
         }
@@ -103,35 +140,47 @@ public class ProductService {
         }
 
         // Update category if provided
+        CategoryDTO category = null;
         if (productDTO.getCategory() != null && productDTO.getCategory().getId() != null) {
-            categoryRepository.findById(productDTO.getCategory().getId())
-                    .ifPresent(product::setCategory);
+            category = categoryService.getCategoryById(productDTO.getCategory().getId()).orElse(null);
+            if (category != null) {
+                product.setCategory(categoryRepository.getReferenceById(category.getId()));
+            }
         }
 
         // Update color if provided
+        ColorDTO color = null;
         if (productDTO.getColor() != null && productDTO.getColor().getId() != null) {
             if (productDTO.getColor().getId().toString().equals("00000000-0000-0000-0000-000000000000")) {
                 product.setColor(null); // Remove color if "null UUID" is sent
             } else {
-                colorRepository.findById(productDTO.getColor().getId())
-                        .ifPresent(product::setColor);
+                color = colorService.getColorById(productDTO.getColor().getId()).orElse(null);
+                if (color != null) {
+                    product.setColor(colorRepository.getReferenceById(color.getId()));
+                }
             }
         }
 
         // Update size if provided
+        SizeDTO size = null;
         if (productDTO.getSize() != null && productDTO.getSize().getId() != null) {
             if (productDTO.getSize().getId().toString().equals("00000000-0000-0000-0000-000000000000")) {
                 product.setSize(null); // Remove size if "null UUID" is sent
             } else {
-                sizeRepository.findById(productDTO.getSize().getId())
-                        .ifPresent(product::setSize);
+                size = sizeService.getSizeById(productDTO.getSize().getId()).orElse(null);
+                if (size != null) {
+                    product.setSize(sizeRepository.getReferenceById(size.getId()));
+                }
             }
         }
 
-        Product savedProduct = productRepository.save(product);
-        return ProductDTO.fromEntity(savedProduct);
+        // Flushed so the returned version is the one the update produced, not the one it replaced
+        Product savedProduct = productRepository.saveAndFlush(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId()));
+        return ProductDTO.fromEntity(savedProduct, category, color, size);
     }
 
+    @Transactional
     public Map<String, Object> deleteProduct(UUID id) {
         Map<String, Object> result = new HashMap<>();
         
@@ -166,60 +215,107 @@ public class ProductService {
 
         // If no associations, delete the product
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         result.put("success", true);
         result.put("message", "Product deleted successfully");
         return result;
     }
 
+    @Transactional
     public ProductDTO archiveProduct(UUID id) {
         Optional<Product> productOpt = productRepository.findById(id);
 
         if (productOpt.isEmpty()) {
-            throw new RuntimeException("Product not found");
+            throw new ProductNotFoundException();
         }
 
         Product product = productOpt.get();
         product.setArchived(true);
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId()));
         return ProductDTO.fromEntity(savedProduct);
     }
 
-    public List<ProductDTO> findByCategoryId(UUID categoryId) {
-        return productRepository.findByCategoryId(categoryId).stream()
-                .map(ProductDTO::fromEntity)
-                .collect(Collectors.toList());
+    /**
+     * Sort order, cursor and clamped size of a page request. A cursor keeps the sort order it was issued for.
+     */
+    public ProductPageQuery resolvePage(ProductPageRequest page) {
+        int limit = Math.min(Math.max(page.getLimit() != null ? page.getLimit() : defaultPageSize, 1), maxPageSize);
+        Set<String> fields = ProductDTO.parseFields(page.getFields());
+        if (page.getCursor() != null) {
+            KeysetCursor cursor = KeysetCursor.decode(page.getCursor());
+            return new ProductPageQuery(ProductSort.valueOf(cursor.sort()), cursor.direction(), cursor, limit, fields);
+        }
+        return new ProductPageQuery(ProductSort.parse(page.getSort()), parseDirection(page.getDirection()), null, limit,
+                fields);
     }
 
-    public List<ProductDTO> findByColorId(UUID colorId) {
-        return productRepository.findByColorId(colorId).stream()
-                .map(ProductDTO::fromEntity)
-                .collect(Collectors.toList());
-    }
+    /**
+     * One page of the products matching the filters (null filters match everything),
+     * read with a keyset seek from the page's cursor. A page asking only for product columns
+     * selects just those and leaves references and images unloaded.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductDTO> findProducts(String name, UUID categoryId, UUID colorId, UUID sizeId,
+                                                  Boolean archived, Boolean featured, ProductPageQuery page) {
+        if (!page.fields().isEmpty() && ProductDTO.SUMMARY_FIELDS.containsAll(page.fields())) {
+            return findProductSummaries(
+                    ProductSpecifications.search(name, categoryId, colorId, sizeId, archived, featured), page);
+        }
+
+        List<Product> products = productRepository.findPage(
+                ProductSpecifications.search(name, categoryId, colorId, sizeId, archived, featured)
+                        .and(ProductSpecifications.fetchReferences()), page);
+        boolean hasMore = products.size() > page.limit();
+        if (hasMore) {
+            products = products.subList(0, page.limit());
+        }
+        // References come with the page; the images of the whole page follow in one statement
+        if (!products.isEmpty()) {
+            productRepository.fetchImages(products);
+        }
 
-    public List<ProductDTO> findBySizeId(UUID sizeId) {
-        return productRepository.findBySizeId(sizeId).stream()
+        List<ProductDTO> items = products.stream()
                 .map(ProductDTO::fromEntity)
                 .collect(Collectors.toList());
+        String nextCursor = hasMore
+                ? page.sort().cursorAt(items.get(items.size() - 1), page.direction()).encode()
+                : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
     }
 
-    public List<ProductDTO> getActiveProducts() {
-        return productRepository.findByArchivedFalse().stream()
-                .map(ProductDTO::fromEntity)
+    private CursorPageDTO<ProductDTO> findProductSummaries(Specification<Product> filter, ProductPageQuery page) {
+        List<ProductDTO> items = productRepository.findSummaries(filter, page.fields(), page).stream()
+                .map(ProductDTO::fromSummary)
                 .collect(Collectors.toList());
+        boolean hasMore = items.size() > page.limit();
+        if (hasMore) {
+            items = items.subList(0, page.limit());
+        }
+
+        String nextCursor = hasMore
+                ? page.sort().cursorAt(items.get(items.size() - 1), page.direction()).encode()
+                : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
     }
 
-    public List<ProductDTO> getFeaturedProducts() {
-        return productRepository.findByFeaturedTrue().stream()
+    /**
+     * Every product with its references and images, for the in-memory catalogue
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getCatalogue() {
+        return productRepository.findAllDetailed().stream()
                 .map(ProductDTO::fromEntity)
                 .collect(Collectors.toList());
     }
 
-    public List<ProductDTO> searchProducts(String name, UUID categoryId, UUID colorId, UUID sizeId,
-                                           Boolean archived, Boolean featured) {
-        return productRepository.searchProducts(name, categoryId, colorId, sizeId, archived, featured).stream()
-                .map(ProductDTO::fromEntity)
-                .collect(Collectors.toList());
+    private static Sort.Direction parseDirection(String direction) {
+        return switch (direction.toLowerCase()) {
+            case "asc" -> Sort.Direction.ASC;
+            case "desc" -> Sort.Direction.DESC;
+            default -> throw new IllegalArgumentException("direction must be asc or desc");
+        };
     }
 
     /**
@@ -227,11 +323,12 @@ public class ProductService {
      * If currently archived -> restore (unarchive)
      * If currently active -> archive
      */
+    @Transactional
     public ProductDTO toggleArchiveStatus(UUID id) {
         Optional<Product> productOpt = productRepository.findById(id);
 
         if (productOpt.isEmpty()) {
-            throw new RuntimeException("Product not found");
+            throw new ProductNotFoundException();
         }
 
         Product product = productOpt.get();
@@ -239,6 +336,7 @@ public class ProductService {
         product.setArchived(!product.getArchived());
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId()));
         return ProductDTO.fromEntity(savedProduct);
     }
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package org.example.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.api.config.CacheConfig;
+import org.example.api.event.ReferenceDataChangedEvent;
 import org.example.api.model.Size;
 import org.example.api.dto.SizeDTO;
 import org.example.api.repository.SizeRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.ZonedDateTime;
@@ -16,13 +20,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SizeService {
     private final SizeRepository sizeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Cacheable(cacheNames = CacheConfig.SIZES, key = "'all'")
     public List<SizeDTO> getAllSizes() {
         return sizeRepository.findAll().stream()
                 .map(SizeDTO::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(cacheNames = CacheConfig.SIZES, key = "#id")
     public Optional<SizeDTO> getSizeById(UUID id) {
         return sizeRepository.findById(id)
                 .map(SizeDTO::fromEntity);
@@ -35,6 +42,7 @@ public class SizeService {
         size.setCreatedAt(ZonedDateTime.now());
 
         Size savedSize = sizeRepository.save(size);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Size.class, savedSize.getId()));
         return SizeDTO.fromEntity(savedSize);
     }
 
@@ -56,6 +64,7 @@ public class SizeService {
         }
 
         Size savedSize = sizeRepository.save(size);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Size.class, savedSize.getId()));
         return SizeDTO.fromEntity(savedSize);
     }
 
@@ -65,9 +74,11 @@ public class SizeService {
         }
 
         sizeRepository.deleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Size.class, id));
         return true;
     }
 
+    @Cacheable(cacheNames = CacheConfig.SIZES, key = "'name:' + #name")
     public boolean nameExists(String name) {
         return sizeRepository.existsByName(name);
     }
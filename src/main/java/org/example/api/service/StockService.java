@@ -0,0 +1,222 @@
+package org.example.api.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.api.dto.StockAdjustmentErrorDTO;
+import org.example.api.dto.StockLevelDTO;
+import org.example.api.event.StockLevelsChangedEvent;
+import org.example.api.exception.StockAdjustmentException;
+import org.example.api.payload.request.product.StockAdjustment;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Relative stock changes. Each product is updated in place with {@code stock = stock + delta}, so concurrent
+ * feeds add up instead of overwriting each other, and a guard in the same statement keeps stock from going
+ * negative. The statement also bumps the product's optimistic lock version, so a full product update based
+ * on an older read fails rather than undoing the adjustment.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockService {
+    // A null expected version matches any version. The guard adds in bigint so a delta that would overflow
+    // the int column is rejected like a shortfall instead of failing the statement.
+    private static final String ADJUST_SQL =
+            "UPDATE product SET stock = stock + ?, version = version + 1 " +
+            "WHERE id = ? AND CAST(stock AS bigint) + ? BETWEEN 0 AND 2147483647 AND version = COALESCE(?, version)";
+
+    private static final String LEVELS_SQL =
+            "SELECT id, name, price, stock, version, archived FROM product WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // The adjustments of one product, summed
+    private record Adjustment(UUID productId, int delta, Long expectedVersion) {
+    }
+
+    // A product row as read back after the updates
+    private record Level(UUID productId, String name, BigDecimal price, int stock, long version, boolean archived) {
+    }
+
+    // Whether an adjustment was applied, and the row it left behind (null when the product does not exist)
+    private record Outcome(Adjustment adjustment, boolean applied, Level level) {
+    }
+
+    /**
+     * A product taken out of stock for an order, priced at the moment it was taken
+     */
+    public record Reservation(UUID productId, String name, BigDecimal unitPrice, int quantity) {
+    }
+
+    /**
+     * Apply every adjustment or none. Adjustments of the same product are summed first. Rows are updated
+     * in id order, so concurrent batches lock shared products in the same order and cannot deadlock.
+     *
+     * @return the new stock and version of each product, in id order
+     * @throws StockAdjustmentException listing the products that were missing, would go below zero or past
+     *                                  the int range, or were not at their expected version
+     */
+    @Transactional
+    public List<StockLevelDTO> adjust(List<StockAdjustment> adjustments) {
+        List<Outcome> outcomes = apply(merge(adjustments));
+        List<StockAdjustmentErrorDTO> errors = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (!outcome.applied()) {
+                errors.add(new StockAdjustmentErrorDTO(outcome.adjustment().productId(), reason(outcome)));
+            }
+        }
+        if (!errors.isEmpty()) {
+            // Rolls back the adjustments already applied
+            throw new StockAdjustmentException("Stock adjustments rejected", errors);
+        }
+
+        publishChanges(outcomes);
+        return outcomes.stream()
+                .map(Outcome::level)
+                .map(level -> new StockLevelDTO(level.productId(), level.stock(), level.version()))
+                .toList();
+    }
+
+    /**
+     * Take ordered quantities out of stock, all or none, with the same guarded updates as {@link #adjust}.
+     * Nothing is read before the update, so two checkouts of the last unit cannot both succeed. Prices are
+     * read after it, while this transaction holds the row locks, so they cannot change before the order is
+     * recorded. Meant to join the transaction that records the order.
+     *
+     * @param quantities ordered quantity per product
+     * @return a reservation per product, in id order
+     * @throws StockAdjustmentException listing the products that were missing, archived or short of stock
+     */
+    @Transactional
+    public List<Reservation> reserve(Map<UUID, Integer> quantities) {
+        List<Adjustment> adjustments = new ArrayList<>();
+        new TreeMap<>(quantities).forEach((productId, quantity) ->
+                adjustments.add(new Adjustment(productId, Math.negateExact(quantity), null)));
+
+        List<Outcome> outcomes = apply(adjustments);
+        List<StockAdjustmentErrorDTO> errors = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.level() == null) {
+                errors.add(new StockAdjustmentErrorDTO(outcome.adjustment().productId(), "Product not found"));
+            } else if (!outcome.applied()) {
+                errors.add(new StockAdjustmentErrorDTO(outcome.adjustment().productId(), "Insufficient stock: "
+                        + outcome.level().stock() + " available, " + -outcome.adjustment().delta() + " ordered"));
+            } else if (outcome.level().archived()) {
+                errors.add(new StockAdjustmentErrorDTO(outcome.adjustment().productId(), "Product is archived"));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new StockAdjustmentException("Order items could not be reserved", errors);
+        }
+
+        publishChanges(outcomes);
+        return outcomes.stream()
+                .map(outcome -> new Reservation(outcome.level().productId(), outcome.level().name(),
+                        outcome.level().price(), -outcome.adjustment().delta()))
+                .toList();
+    }
+
+    // Run the guarded updates as one batch, then read back every row they targeted
+    private List<Outcome> apply(List<Adjustment> adjustments) {
+        int[] counts = jdbcTemplate.batchUpdate(ADJUST_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Adjustment adjustment = adjustments.get(i);
+                ps.setInt(1, adjustment.delta());
+                ps.setObject(2, adjustment.productId());
+                ps.setInt(3, adjustment.delta());
+                if (adjustment.expectedVersion() != null) {
+                    ps.setLong(4, adjustment.expectedVersion());
+                } else {
+                    ps.setNull(4, Types.BIGINT);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return adjustments.size();
+            }
+        });
+
+        Map<UUID, Level> levels = levels(adjustments);
+        List<Outcome> outcomes = new ArrayList<>(adjustments.size());
+        for (int i = 0; i < adjustments.size(); i++) {
+            Adjustment adjustment = adjustments.get(i);
+            outcomes.add(new Outcome(adjustment, counts[i] > 0, levels.get(adjustment.productId())));
+        }
+        return outcomes;
+    }
+
+    // One event for the whole batch, carrying the rows already read back
+    private void publishChanges(List<Outcome> outcomes) {
+        eventPublisher.publishEvent(new StockLevelsChangedEvent(outcomes.stream()
+                .map(Outcome::level)
+                .map(level -> new StockLevelDTO(level.productId(), level.stock(), level.version()))
+                .toList()));
+    }
+
+    private static List<Adjustment> merge(List<StockAdjustment> adjustments) {
+        Map<UUID, Adjustment> byProduct = new TreeMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            Adjustment previous = byProduct.get(adjustment.getProductId());
+            if (previous == null) {
+                byProduct.put(adjustment.getProductId(), new Adjustment(adjustment.getProductId(),
+                        adjustment.getDelta(), adjustment.getExpectedVersion()));
+                continue;
+            }
+            if (!Objects.equals(previous.expectedVersion(), adjustment.getExpectedVersion())) {
+                throw new IllegalArgumentException(
+                        "Adjustments of product " + adjustment.getProductId() + " expect different versions");
+            }
+            int delta;
+            try {
+                delta = Math.addExact(previous.delta(), adjustment.getDelta());
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(
+                        "Adjustments of product " + adjustment.getProductId() + " add up to more than an int");
+            }
+            byProduct.put(adjustment.getProductId(), new Adjustment(adjustment.getProductId(),
+                    delta, previous.expectedVersion()));
+        }
+        return new ArrayList<>(byProduct.values());
+    }
+
+    private Map<UUID, Level> levels(List<Adjustment> adjustments) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids",
+                adjustments.stream().map(Adjustment::productId).toList());
+        Map<UUID, Level> levels = new HashMap<>();
+        namedJdbcTemplate.query(LEVELS_SQL, params, rs -> {
+            UUID id = rs.getObject("id", UUID.class);
+            levels.put(id, new Level(id, rs.getString("name"), rs.getBigDecimal("price"), rs.getInt("stock"),
+                    rs.getLong("version"), rs.getBoolean("archived")));
+        });
+        return levels;
+    }
+
+    private static String reason(Outcome outcome) {
+        Adjustment adjustment = outcome.adjustment();
+        Level level = outcome.level();
+        if (level == null) {
+            return "Product not found";
+        }
+        if (adjustment.expectedVersion() != null && adjustment.expectedVersion() != level.version()) {
+            return "Product is at version " + level.version() + ", not " + adjustment.expectedVersion();
+        }
+        if ((long) level.stock() + adjustment.delta() > Integer.MAX_VALUE) {
+            return "Stock would exceed " + Integer.MAX_VALUE + ": " + level.stock() + " available, delta " + adjustment.delta();
+        }
+        return "Insufficient stock: " + level.stock() + " available, delta " + adjustment.delta();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.api.service.catalogue;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A catalogue read and the version of the snapshot it was served from; the version is null
+ * when the read fell back to the database
+ */
+public record CatalogueRead<T>(T data, Long version) {
+    public static final String VERSION_HEADER = "X-Catalogue-Version";
+
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        if (version != null) {
+            headers.set(VERSION_HEADER, version.toString());
+        }
+        return headers;
+    }
+}
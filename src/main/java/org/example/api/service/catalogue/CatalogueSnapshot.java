@@ -0,0 +1,296 @@
+package org.example.api.service.catalogue;
+
+import org.example.api.dto.*;
+import org.example.api.service.catalogue.ProductAttributeIndex.Facet;
+import org.example.api.util.KeysetCursor;
+import org.example.api.util.ProductPageQuery;
+import org.example.api.util.ProductSort;
+import org.springframework.data.domain.Sort;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of the public catalogue: products, categories, colors and sizes. Every product has an
+ * ordinal; the snapshot keeps the ordinals pre-sorted in every listing order and a bitmap index of the
+ * product attributes. A change produces a new snapshot with a higher version; readers holding the old one
+ * keep a consistent view.
+ */
+public final class CatalogueSnapshot {
+    private final long version;
+    private final ProductDTO[] products;
+    private final Map<UUID, Integer> ordinals;
+    private final Map<ProductSort, int[]> sortedOrdinals;
+    private final ProductAttributeIndex attributes;
+    private final List<CategoryDTO> categories;
+    private final List<ColorDTO> colors;
+    private final List<SizeDTO> sizes;
+    private final Map<UUID, CategoryDTO> categoriesById;
+    private final Map<UUID, ColorDTO> colorsById;
+    private final Map<UUID, SizeDTO> sizesById;
+
+    private CatalogueSnapshot(long version, ProductDTO[] products, Map<UUID, Integer> ordinals,
+                              Map<ProductSort, int[]> sortedOrdinals, ProductAttributeIndex attributes,
+                              List<CategoryDTO> categories, List<ColorDTO> colors, List<SizeDTO> sizes) {
+        this.version = version;
+        this.products = products;
+        this.ordinals = ordinals;
+        this.sortedOrdinals = sortedOrdinals;
+        this.attributes = attributes;
+        this.categories = categories;
+        this.colors = colors;
+        this.sizes = sizes;
+        this.categoriesById = index(categories, CategoryDTO::getId);
+        this.colorsById = index(colors, ColorDTO::getId);
+        this.sizesById = index(sizes, SizeDTO::getId);
+    }
+
+    public static CatalogueSnapshot of(long version, Collection<ProductDTO> products, List<CategoryDTO> categories,
+                                       List<ColorDTO> colors, List<SizeDTO> sizes) {
+        ProductDTO[] byOrdinal = products.toArray(new ProductDTO[0]);
+        Map<UUID, Integer> ordinals = new HashMap<>();
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            ordinals.put(byOrdinal[ordinal].getId(), ordinal);
+        }
+
+        Map<ProductSort, int[]> sortedOrdinals = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            Comparator<ProductDTO> order = sort.order();
+            sortedOrdinals.put(sort, ordinals.values().stream()
+                    .sorted((a, b) -> order.compare(byOrdinal[a], byOrdinal[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray());
+        }
+        return new CatalogueSnapshot(version, byOrdinal, Collections.unmodifiableMap(ordinals), sortedOrdinals,
+                ProductAttributeIndex.of(byOrdinal), List.copyOf(categories), List.copyOf(colors), List.copyOf(sizes));
+    }
+
+    /**
+     * Copy of this snapshot with one product replaced, added, or removed when {@code product} is null.
+     * A product keeps its ordinal; a new one takes the next free ordinal.
+     */
+    public CatalogueSnapshot withProduct(long version, UUID productId, ProductDTO product) {
+        Integer existing = ordinals.get(productId);
+        if (existing == null && product == null) {
+            return this;
+        }
+
+        int ordinal = existing != null ? existing : products.length;
+        ProductDTO previous = existing != null ? products[existing] : null;
+        ProductDTO[] byOrdinal = Arrays.copyOf(products, Math.max(products.length, ordinal + 1));
+        byOrdinal[ordinal] = product;
+
+        Map<UUID, Integer> updatedOrdinals = new HashMap<>(ordinals);
+        if (product != null) {
+            updatedOrdinals.put(productId, ordinal);
+        } else {
+            updatedOrdinals.remove(productId);
+        }
+
+        Map<ProductSort, int[]> updatedSorted = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            updatedSorted.put(sort, resort(sortedOrdinals.get(sort), sort.order(), ordinal, previous, product));
+        }
+        return new CatalogueSnapshot(version, byOrdinal, Collections.unmodifiableMap(updatedOrdinals), updatedSorted,
+                attributes.with(ordinal, previous, product), categories, colors, sizes);
+    }
+
+    /**
+     * Copy of this snapshot with new stock levels. Stock is neither a sort key nor an indexed attribute, so
+     * only the changed products are copied; a level no newer than the product held is ignored.
+     */
+    public CatalogueSnapshot withStockLevels(long version, Collection<StockLevelDTO> levels) {
+        ProductDTO[] byOrdinal = null;
+        for (StockLevelDTO level : levels) {
+            Integer ordinal = ordinals.get(level.getProductId());
+            if (ordinal == null) {
+                continue;
+            }
+            ProductDTO product = products[ordinal];
+            if (product.getVersion() != null && product.getVersion() >= level.getVersion()) {
+                continue;
+            }
+            if (byOrdinal == null) {
+                byOrdinal = products.clone();
+            }
+            byOrdinal[ordinal] = withStock(product, level.getStock(), level.getVersion());
+        }
+        if (byOrdinal == null) {
+            return this;
+        }
+        return new CatalogueSnapshot(version, byOrdinal, ordinals, sortedOrdinals, attributes, categories, colors, sizes);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Optional<ProductDTO> product(UUID id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal != null ? Optional.of(products[ordinal]) : Optional.empty();
+    }
+
+    /**
+     * One page of the products accepted by the filter, in the same order and with the same cursors
+     * as the database listing
+     */
+    public CursorPageDTO<ProductDTO> findProducts(ProductFilter filter, ProductPageQuery page) {
+        BitSet matching = attributes.matching(filter);
+        int[] sorted = sortedOrdinals.get(page.sort());
+        boolean ascending = page.direction() == Sort.Direction.ASC;
+        int step = ascending ? 1 : -1;
+
+        List<ProductDTO> items = new ArrayList<>();
+        boolean hasMore = false;
+        for (int index = start(sorted, page.sort(), page.after(), ascending); index >= 0 && index < sorted.length; index += step) {
+            ProductDTO product = products[sorted[index]];
+            if (!matching.get(sorted[index]) || !filter.matchesName(product)) {
+                continue;
+            }
+            if (items.size() == page.limit()) {
+                hasMore = true;
+                break;
+            }
+            items.add(product);
+        }
+
+        String nextCursor = hasMore ? page.sort().cursorAt(items.get(items.size() - 1), page.direction()).encode() : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * A page of the filtered products and the facet counts of the filter, from the same snapshot
+     */
+    public ProductFacetsDTO findProductsWithFacets(ProductFilter filter, ProductPageQuery page) {
+        BitSet nameMatches = null;
+        if (filter.name() != null) {
+            nameMatches = new BitSet(products.length);
+            for (int ordinal = 0; ordinal < products.length; ordinal++) {
+                nameMatches.set(ordinal, products[ordinal] != null && filter.matchesName(products[ordinal]));
+            }
+        }
+
+        Map<Facet, Map<Object, Integer>> counts = attributes.facetCounts(filter, nameMatches);
+        return new ProductFacetsDTO(
+                findProducts(filter, page),
+                facet(counts.get(Facet.CATEGORY), id -> Optional.ofNullable(categoriesById.get(id)).map(CategoryDTO::getName)),
+                facet(counts.get(Facet.COLOR), id -> Optional.ofNullable(colorsById.get(id)).map(ColorDTO::getName)),
+                facet(counts.get(Facet.SIZE), id -> Optional.ofNullable(sizesById.get(id)).map(SizeDTO::getName)),
+                facet(counts.get(Facet.ARCHIVED), flag -> Optional.empty()),
+                facet(counts.get(Facet.FEATURED), flag -> Optional.empty()));
+    }
+
+    public List<CategoryDTO> categories() {
+        return categories;
+    }
+
+    public Optional<CategoryDTO> category(UUID id) {
+        return Optional.ofNullable(categoriesById.get(id));
+    }
+
+    public List<ColorDTO> colors() {
+        return colors;
+    }
+
+    public Optional<ColorDTO> color(UUID id) {
+        return Optional.ofNullable(colorsById.get(id));
+    }
+
+    public List<SizeDTO> sizes() {
+        return sizes;
+    }
+
+    public Optional<SizeDTO> size(UUID id) {
+        return Optional.ofNullable(sizesById.get(id));
+    }
+
+    // Most frequent values first
+    @SuppressWarnings("unchecked")
+    private static <K> List<FacetCountDTO> facet(Map<Object, Integer> counts, Function<K, Optional<String>> label) {
+        return counts.entrySet().stream()
+                .map(e -> new FacetCountDTO(String.valueOf(e.getKey()),
+                        label.apply((K) e.getKey()).orElse(String.valueOf(e.getKey())), e.getValue()))
+                .sorted(Comparator.comparingLong(FacetCountDTO::getCount).reversed()
+                        .thenComparing(FacetCountDTO::getLabel))
+                .collect(Collectors.toList());
+    }
+
+    // The sorted ordinals with one product taken out at its old position and put back at its new one
+    private int[] resort(int[] sorted, Comparator<ProductDTO> order, int ordinal, ProductDTO previous, ProductDTO product) {
+        int[] updated = sorted;
+        if (previous != null) {
+            int index = search(updated, order, previous);
+            int[] removed = new int[updated.length - 1];
+            System.arraycopy(updated, 0, removed, 0, index);
+            System.arraycopy(updated, index + 1, removed, index, updated.length - index - 1);
+            updated = removed;
+        }
+        if (product != null) {
+            int index = -search(updated, order, product) - 1;
+            int[] inserted = new int[updated.length + 1];
+            System.arraycopy(updated, 0, inserted, 0, index);
+            inserted[index] = ordinal;
+            System.arraycopy(updated, index, inserted, index + 1, updated.length - index);
+            updated = inserted;
+        }
+        return updated;
+    }
+
+    // Binary search of a product among sorted ordinals, with the Arrays.binarySearch return convention
+    private int search(int[] sorted, Comparator<ProductDTO> order, ProductDTO product) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = order.compare(products[sorted[middle]], product);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Index of the first ordinal to visit: right after the cursor in the direction of the listing
+    private int start(int[] sorted, ProductSort sort, KeysetCursor after, boolean ascending) {
+        if (after == null) {
+            return ascending ? 0 : sorted.length - 1;
+        }
+
+        // First product sorting after the cursor row
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sort.compareToCursor(products[sorted[middle]], after) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (ascending) {
+            return low;
+        }
+
+        // Last product sorting before the cursor row
+        int before = low - 1;
+        if (before >= 0 && sort.compareToCursor(products[sorted[before]], after) == 0) {
+            before--;
+        }
+        return before;
+    }
+
+    private static ProductDTO withStock(ProductDTO product, int stock, long version) {
+        return new ProductDTO(product.getId(), product.getName(), product.getPrice(), stock, product.getCategory(),
+                product.getCreatedAt(), product.getDescription(), product.getArchived(), product.getFeatured(),
+                product.getColor(), product.getSize(), product.getImages(), product.getThumbnail(), version);
+    }
+
+    private static <T> Map<UUID, T> index(Collection<T> values, Function<T, UUID> id) {
+        return values.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
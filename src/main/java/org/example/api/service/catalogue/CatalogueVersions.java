@@ -0,0 +1,156 @@
+package org.example.api.service.catalogue;
+
+import org.example.api.model.CatalogueVersion;
+import org.example.api.model.Category;
+import org.example.api.model.Color;
+import org.example.api.model.Size;
+import org.example.api.repository.CatalogueVersionRepository;
+import org.example.api.repository.projection.CatalogueStamps;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Version and last modification time of each catalogue aggregate, derived from the persisted catalogue so
+ * every instance serving the same data answers with the same ETag and Last-Modified. The version is a hash
+ * of the table fingerprints a snapshot was built from, the time is when any instance first recorded that
+ * fingerprint. A change this instance applies to its snapshot in place, ahead of the next rebuild, is
+ * marked with a suffix unique to the instance, so it never matches a tag served for other data.
+ */
+@Component
+public class CatalogueVersions {
+
+    public enum Aggregate {
+        PRODUCTS('p', CatalogueStamps::productsStamp),
+        CATEGORIES('c', CatalogueStamps::getCategories),
+        COLORS('o', CatalogueStamps::getColors),
+        SIZES('s', CatalogueStamps::getSizes);
+
+        private final char tag;
+        private final Function<CatalogueStamps, String> stamp;
+
+        Aggregate(char tag, Function<CatalogueStamps, String> stamp) {
+            this.tag = tag;
+            this.stamp = stamp;
+        }
+
+        public static Aggregate of(Class<?> referenceType) {
+            if (referenceType == Category.class) {
+                return CATEGORIES;
+            }
+            if (referenceType == Color.class) {
+                return COLORS;
+            }
+            if (referenceType == Size.class) {
+                return SIZES;
+            }
+            throw new IllegalArgumentException("Not a catalogue aggregate: " + referenceType.getSimpleName());
+        }
+    }
+
+    // The persisted version of an aggregate, the number of local changes ever applied, and how many of
+    // them the persisted version already covers
+    private record Version(String hash, long lastModified, long localChanges, long recordedChanges) {
+    }
+
+    private final CatalogueVersionRepository repository;
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<Aggregate, Version> versions = new ConcurrentHashMap<>();
+
+    public CatalogueVersions(CatalogueVersionRepository repository) {
+        this.repository = repository;
+        // Until the first fingerprints are recorded, tags are local to this instance
+        long now = System.currentTimeMillis();
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new Version("", now, 1, 0));
+        }
+    }
+
+    /**
+     * Local changes applied so far, to pass to {@link #record} when reading fingerprints afterwards: changes
+     * are counted once committed, so the fingerprints cover these
+     */
+    public Map<Aggregate, Long> checkpoint() {
+        Map<Aggregate, Long> changes = new EnumMap<>(Aggregate.class);
+        versions.forEach((aggregate, version) -> changes.put(aggregate, version.localChanges()));
+        return changes;
+    }
+
+    /**
+     * Adopt the fingerprints of the persisted catalogue, once the data they describe can be read. Local
+     * changes after the checkpoint keep marking the tag. In a transaction of its own: it runs from
+     * listeners of transactions that already committed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void record(CatalogueStamps stamps, Map<Aggregate, Long> checkpoint) {
+        Map<Aggregate, String> hashes = new EnumMap<>(Aggregate.class);
+        for (Aggregate aggregate : Aggregate.values()) {
+            String stamp = aggregate.stamp.apply(stamps);
+            repository.record(aggregate.name(), stamp);
+            hashes.put(aggregate, hash(stamp));
+        }
+        for (CatalogueVersion recorded : repository.findAll()) {
+            Aggregate aggregate = Aggregate.valueOf(recorded.getAggregate());
+            long changedAt = recorded.getChangedAt().toInstant().toEpochMilli();
+            versions.compute(aggregate, (key, version) -> {
+                long covered = Math.max(version.recordedChanges(), checkpoint.get(key));
+                // A local change not covered yet keeps its own, later modification time
+                long lastModified = version.localChanges() > covered ? Math.max(changedAt, version.lastModified()) : changedAt;
+                return new Version(hashes.get(key), lastModified, version.localChanges(), covered);
+            });
+        }
+    }
+
+    /**
+     * A committed change this instance applied before the fingerprints were recorded again
+     */
+    public void bump(Aggregate aggregate) {
+        long now = System.currentTimeMillis();
+        versions.compute(aggregate, (key, version) ->
+                new Version(version.hash(), Math.max(version.lastModified(), now), version.localChanges() + 1,
+                        version.recordedChanges()));
+    }
+
+    /**
+     * Entity tag of a representation built from the given aggregates, e.g. {@code c3f9a1e07b2c4d5e6.o0a1b2c3d4e5f6a7b},
+     * with {@code -<instance>.<changes>} appended to an aggregate changed locally since
+     */
+    public String etag(Collection<Aggregate> aggregates) {
+        StringBuilder etag = new StringBuilder();
+        for (Aggregate aggregate : aggregates) {
+            if (!etag.isEmpty()) {
+                etag.append('.');
+            }
+            Version version = versions.get(aggregate);
+            etag.append(aggregate.tag).append(version.hash());
+            if (version.localChanges() > version.recordedChanges()) {
+                etag.append('-').append(instance).append('.').append(version.localChanges());
+            }
+        }
+        return etag.toString();
+    }
+
+    public long lastModified(Collection<Aggregate> aggregates) {
+        return aggregates.stream().mapToLong(aggregate -> versions.get(aggregate).lastModified()).max().orElse(-1);
+    }
+
+    private static String hash(String stamp) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(stamp.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.api.service.catalogue;
+
+import org.example.api.dto.ProductDTO;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bitmap index over the attributes of the catalogue products: one bitmap per category, color and size,
+ * and one for each flag, with a bit per product ordinal. A filter combination is answered with bitmap
+ * OR within an attribute and AND across attributes, and facet counts are intersections' cardinalities.
+ * Bitmaps are never modified once the index is built; a change copies only the bitmaps it touches.
+ */
+final class ProductAttributeIndex {
+
+    enum Facet { CATEGORY, COLOR, SIZE, ARCHIVED, FEATURED }
+
+    private final Map<UUID, BitSet> byCategory;
+    private final Map<UUID, BitSet> byColor;
+    private final Map<UUID, BitSet> bySize;
+    private final BitSet archived;
+    private final BitSet featured;
+    // Ordinals holding a product; deleted products leave a cleared bit behind
+    private final BitSet present;
+
+    private ProductAttributeIndex(Map<UUID, BitSet> byCategory, Map<UUID, BitSet> byColor, Map<UUID, BitSet> bySize,
+                                  BitSet archived, BitSet featured, BitSet present) {
+        this.byCategory = byCategory;
+        this.byColor = byColor;
+        this.bySize = bySize;
+        this.archived = archived;
+        this.featured = featured;
+        this.present = present;
+    }
+
+    static ProductAttributeIndex of(ProductDTO[] products) {
+        Map<UUID, BitSet> byCategory = new HashMap<>();
+        Map<UUID, BitSet> byColor = new HashMap<>();
+        Map<UUID, BitSet> bySize = new HashMap<>();
+        BitSet archived = new BitSet(products.length);
+        BitSet featured = new BitSet(products.length);
+        BitSet present = new BitSet(products.length);
+
+        for (int ordinal = 0; ordinal < products.length; ordinal++) {
+            ProductDTO product = products[ordinal];
+            if (product == null) {
+                continue;
+            }
+            present.set(ordinal);
+            set(byCategory, categoryOf(product), ordinal);
+            set(byColor, colorOf(product), ordinal);
+            set(bySize, sizeOf(product), ordinal);
+            archived.set(ordinal, Boolean.TRUE.equals(product.getArchived()));
+            featured.set(ordinal, Boolean.TRUE.equals(product.getFeatured()));
+        }
+        return new ProductAttributeIndex(byCategory, byColor, bySize, archived, featured, present);
+    }
+
+    /**
+     * Copy of this index with the product at an ordinal replaced; either side may be null
+     */
+    ProductAttributeIndex with(int ordinal, ProductDTO previous, ProductDTO product) {
+        return new ProductAttributeIndex(
+                move(byCategory, ordinal, previous, product, ProductAttributeIndex::categoryOf),
+                move(byColor, ordinal, previous, product, ProductAttributeIndex::colorOf),
+                move(bySize, ordinal, previous, product, ProductAttributeIndex::sizeOf),
+                flag(archived, ordinal, product != null && Boolean.TRUE.equals(product.getArchived())),
+                flag(featured, ordinal, product != null && Boolean.TRUE.equals(product.getFeatured())),
+                flag(present, ordinal, product != null));
+    }
+
+    /**
+     * Ordinals of the products matching the attribute filters (the name is not indexed)
+     */
+    BitSet matching(ProductFilter filter) {
+        return matchingExcept(filter, null);
+    }
+
+    /**
+     * Count of matching products per value of each facet. The filter on a facet is left out of its own counts,
+     * so they tell how many products each alternative value would give.
+     */
+    Map<Facet, Map<Object, Integer>> facetCounts(ProductFilter filter, BitSet nameMatches) {
+        Map<Facet, Map<Object, Integer>> counts = new EnumMap<>(Facet.class);
+        counts.put(Facet.CATEGORY, count(byCategory, base(filter, Facet.CATEGORY, nameMatches)));
+        counts.put(Facet.COLOR, count(byColor, base(filter, Facet.COLOR, nameMatches)));
+        counts.put(Facet.SIZE, count(bySize, base(filter, Facet.SIZE, nameMatches)));
+        counts.put(Facet.ARCHIVED, countFlag(archived, base(filter, Facet.ARCHIVED, nameMatches)));
+        counts.put(Facet.FEATURED, countFlag(featured, base(filter, Facet.FEATURED, nameMatches)));
+        return counts;
+    }
+
+    private BitSet base(ProductFilter filter, Facet skipped, BitSet nameMatches) {
+        BitSet base = matchingExcept(filter, skipped);
+        if (nameMatches != null) {
+            base.and(nameMatches);
+        }
+        return base;
+    }
+
+    private BitSet matchingExcept(ProductFilter filter, Facet skipped) {
+        BitSet result = (BitSet) present.clone();
+        if (skipped != Facet.CATEGORY) {
+            and(result, byCategory, filter.categoryIds());
+        }
+        if (skipped != Facet.COLOR) {
+            and(result, byColor, filter.colorIds());
+        }
+        if (skipped != Facet.SIZE) {
+            and(result, bySize, filter.sizeIds());
+        }
+        if (skipped != Facet.ARCHIVED) {
+            and(result, archived, filter.archived());
+        }
+        if (skipped != Facet.FEATURED) {
+            and(result, featured, filter.featured());
+        }
+        return result;
+    }
+
+    private static void and(BitSet result, Map<UUID, BitSet> bitmaps, Set<UUID> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        BitSet any = new BitSet();
+        for (UUID value : values) {
+            BitSet bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                any.or(bitmap);
+            }
+        }
+        result.and(any);
+    }
+
+    private static void and(BitSet result, BitSet flag, Boolean value) {
+        if (value == null) {
+            return;
+        }
+        if (value) {
+            result.and(flag);
+        } else {
+            result.andNot(flag);
+        }
+    }
+
+    private static Map<Object, Integer> count(Map<UUID, BitSet> bitmaps, BitSet base) {
+        Map<Object, Integer> counts = new HashMap<>();
+        for (Map.Entry<UUID, BitSet> entry : bitmaps.entrySet()) {
+            BitSet intersection = (BitSet) entry.getValue().clone();
+            intersection.and(base);
+            if (!intersection.isEmpty()) {
+                counts.put(entry.getKey(), intersection.cardinality());
+            }
+        }
+        return counts;
+    }
+
+    private static Map<Object, Integer> countFlag(BitSet flag, BitSet base) {
+        BitSet set = (BitSet) base.clone();
+        set.and(flag);
+        int total = base.cardinality();
+        int withFlag = set.cardinality();
+        return Map.of(true, withFlag, false, total - withFlag);
+    }
+
+    private static Map<UUID, BitSet> move(Map<UUID, BitSet> bitmaps, int ordinal, ProductDTO previous, ProductDTO product,
+                                          Function<ProductDTO, UUID> attribute) {
+        UUID from = previous != null ? attribute.apply(previous) : null;
+        UUID to = product != null ? attribute.apply(product) : null;
+        if (Objects.equals(from, to)) {
+            return bitmaps;
+        }
+
+        Map<UUID, BitSet> updated = new HashMap<>(bitmaps);
+        if (from != null) {
+            BitSet bitmap = (BitSet) updated.get(from).clone();
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                updated.remove(from);
+            } else {
+                updated.put(from, bitmap);
+            }
+        }
+        if (to != null) {
+            BitSet bitmap = updated.containsKey(to) ? (BitSet) updated.get(to).clone() : new BitSet();
+            bitmap.set(ordinal);
+            updated.put(to, bitmap);
+        }
+        return updated;
+    }
+
+    private static BitSet flag(BitSet bitmap, int ordinal, boolean value) {
+        if (bitmap.get(ordinal) == value) {
+            return bitmap;
+        }
+        BitSet updated = (BitSet) bitmap.clone();
+        updated.set(ordinal, value);
+        return updated;
+    }
+
+    private static void set(Map<UUID, BitSet> bitmaps, UUID value, int ordinal) {
+        if (value != null) {
+            bitmaps.computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private static UUID categoryOf(ProductDTO product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    private static UUID colorOf(ProductDTO product) {
+        return product.getColor() != null ? product.getColor().getId() : null;
+    }
+
+    private static UUID sizeOf(ProductDTO product) {
+        return product.getSize() != null ? product.getSize().getId() : null;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.api.service.catalogue;
+
+import org.example.api.dto.ProductDTO;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Filters of a catalogue listing. Within an attribute any of the given values matches (an empty set matches
+ * everything), across attributes all must match; a null name, archived or featured matches everything.
+ */
+public record ProductFilter(String name, Set<UUID> categoryIds, Set<UUID> colorIds, Set<UUID> sizeIds,
+                            Boolean archived, Boolean featured) {
+
+    public static ProductFilter of(String name, UUID categoryId, UUID colorId, UUID sizeId,
+                                   Boolean archived, Boolean featured) {
+        return new ProductFilter(name, setOf(categoryId), setOf(colorId), setOf(sizeId), archived, featured);
+    }
+
+    // Same matching as ProductSpecifications.nameContains
+    public boolean matchesName(ProductDTO product) {
+        return name == null || product.getName().toLowerCase().contains(name.toLowerCase());
+    }
+
+    private static Set<UUID> setOf(UUID id) {
+        return id != null ? Set.of(id) : Set.of();
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.api.service.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import static org.example.api.service.search.ProductSearchIndex.POST_TAG;
+import static org.example.api.service.search.ProductSearchIndex.PRE_TAG;
+
+/**
+ * Builds highlights as HTML: the product text is escaped and only the tags around matches are markup,
+ * so a name or description cannot inject markup into a page that renders the highlight.
+ */
+final class Highlights {
+    // Delimit matches in ts_headline output; control characters, stripped from the text beforehand
+    static final String START = "\u0002";
+    static final String STOP = "\u0003";
+
+    private Highlights() {
+    }
+
+    static StringBuilder appendText(StringBuilder html, CharSequence text) {
+        return html.append(HtmlUtils.htmlEscape(text.toString()));
+    }
+
+    static StringBuilder appendMatch(StringBuilder html, CharSequence match) {
+        return appendText(html.append(PRE_TAG), match).append(POST_TAG);
+    }
+
+    /**
+     * Convert text with matches between {@link #START} and {@link #STOP} to an escaped highlight
+     */
+    static String fromDelimited(String delimited) {
+        if (delimited == null) {
+            return null;
+        }
+
+        StringBuilder html = new StringBuilder(delimited.length() + 16);
+        int last = 0;
+        int start;
+        while ((start = delimited.indexOf(START, last)) >= 0) {
+            int stop = delimited.indexOf(STOP, start + 1);
+            if (stop < 0) {
+                break;
+            }
+            appendText(html, delimited.substring(last, start));
+            appendMatch(html, delimited.substring(start + 1, stop));
+            last = stop + 1;
+        }
+        return appendText(html, delimited.substring(last)).toString();
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.api.service.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.api.event.ProductChangedEvent;
+import org.example.api.event.ProductsImportedEvent;
+import org.example.api.model.Product;
+import org.example.api.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process product search: an inverted index from words to products, and from trigrams to words
+ * so a misspelt or partial query word finds the indexed words close to it. Built on startup and kept
+ * up to date from {@link ProductChangedEvent}s, and rebuilt after a bulk import.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InMemoryProductSearchIndex implements ProductSearchIndex {
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    // Trigram similarity a word needs to count as a match, close to pg_trgm's defaults
+    private static final double MIN_SIMILARITY = 0.4;
+    // Similarity given to a word the query word is a prefix of, so results show up while typing
+    private static final double PREFIX_SIMILARITY = 0.75;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Document> documents = new HashMap<>();
+    private final Map<String, Set<UUID>> productsByWord = new HashMap<>();
+    private final Map<String, Set<String>> wordsByTrigram = new HashMap<>();
+
+    private record Document(String name, String description, boolean archived,
+                            Set<String> nameWords, Set<String> descriptionWords) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            productsByWord.clear();
+            wordsByTrigram.clear();
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} products for search", products.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Optional<Product> product = productRepository.findById(event.productId());
+        lock.writeLock().lock();
+        try {
+            remove(event.productId());
+            product.ifPresent(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        rebuild();
+    }
+
+    @Override
+    public List<ProductSearchHit> search(String query, int limit, boolean includeArchived) {
+        Set<String> queryWords = words(query);
+
+        lock.readLock().lock();
+        try {
+            // Best similarity of each query word to the words of each candidate product
+            Map<UUID, double[]> scores = new HashMap<>();
+            Map<String, Double> matchedWords = new HashMap<>();
+            int i = 0;
+            for (String queryWord : queryWords) {
+                for (Map.Entry<String, Double> match : similarWords(queryWord).entrySet()) {
+                    matchedWords.merge(match.getKey(), match.getValue(), Math::max);
+                    for (UUID productId : productsByWord.get(match.getKey())) {
+                        Document document = documents.get(productId);
+                        double weight = document.nameWords().contains(match.getKey()) ? NAME_WEIGHT : DESCRIPTION_WEIGHT;
+                        double[] wordScores = scores.computeIfAbsent(productId, id -> new double[queryWords.size()]);
+                        wordScores[i] = Math.max(wordScores[i], weight * match.getValue());
+                    }
+                }
+                i++;
+            }
+
+            return scores.entrySet().stream()
+                    .filter(e -> includeArchived || !documents.get(e.getKey()).archived())
+                    .map(e -> Map.entry(e.getKey(), Arrays.stream(e.getValue()).sum()))
+                    .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed()
+                            .thenComparing(e -> documents.get(e.getKey()).name()))
+                    .limit(limit)
+                    .map(e -> {
+                        Document document = documents.get(e.getKey());
+                        return new ProductSearchHit(e.getKey(), e.getValue(),
+                                highlight(document.name(), matchedWords.keySet()),
+                                highlight(document.description(), matchedWords.keySet()));
+                    })
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexed words close enough to a query word, with their similarity
+     */
+    private Map<String, Double> similarWords(String queryWord) {
+        Set<String> queryTrigrams = trigrams(queryWord);
+        Set<String> candidates = new HashSet<>();
+        for (String trigram : queryTrigrams) {
+            candidates.addAll(wordsByTrigram.getOrDefault(trigram, Set.of()));
+        }
+
+        Map<String, Double> similar = new HashMap<>();
+        for (String word : candidates) {
+            double similarity = similarity(queryTrigrams, trigrams(word));
+            if (queryWord.length() > 1 && word.startsWith(queryWord)) {
+                similarity = Math.max(similarity, word.equals(queryWord) ? 1.0 : PREFIX_SIMILARITY);
+            }
+            if (similarity >= MIN_SIMILARITY) {
+                similar.put(word, similarity);
+            }
+        }
+        return similar;
+    }
+
+    private void add(Product product) {
+        Document document = new Document(product.getName(), product.getDescription(),
+                Boolean.TRUE.equals(product.getArchived()), words(product.getName()), words(product.getDescription()));
+        documents.put(product.getId(), document);
+
+        Set<String> allWords = new HashSet<>(document.nameWords());
+        allWords.addAll(document.descriptionWords());
+        for (String word : allWords) {
+            Set<UUID> products = productsByWord.computeIfAbsent(word, w -> {
+                trigrams(w).forEach(trigram -> wordsByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(w));
+                return new HashSet<>();
+            });
+            products.add(product.getId());
+        }
+    }
+
+    private void remove(UUID productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+
+        Set<String> allWords = new HashSet<>(document.nameWords());
+        allWords.addAll(document.descriptionWords());
+        for (String word : allWords) {
+            Set<UUID> products = productsByWord.get(word);
+            products.remove(productId);
+            if (products.isEmpty()) {
+                productsByWord.remove(word);
+                for (String trigram : trigrams(word)) {
+                    Set<String> words = wordsByTrigram.get(trigram);
+                    words.remove(word);
+                    if (words.isEmpty()) {
+                        wordsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String highlight(String text, Set<String> matchedWords) {
+        if (text == null) {
+            return null;
+        }
+
+        StringBuilder highlighted = new StringBuilder();
+        Matcher matcher = WORD.matcher(text);
+        int last = 0;
+        while (matcher.find()) {
+            if (matchedWords.contains(matcher.group().toLowerCase())) {
+                Highlights.appendText(highlighted, text.subSequence(last, matcher.start()));
+                Highlights.appendMatch(highlighted, matcher.group());
+                last = matcher.end();
+            }
+        }
+        return Highlights.appendText(highlighted, text.subSequence(last, text.length())).toString();
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text != null) {
+            Matcher matcher = WORD.matcher(text.toLowerCase());
+            while (matcher.find()) {
+                words.add(matcher.group());
+            }
+        }
+        return words;
+    }
+
+    // Trigrams of a word padded like pg_trgm does: two spaces in front, one behind
+    private static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        int shared = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+}
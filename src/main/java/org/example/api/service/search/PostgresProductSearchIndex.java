@@ -0,0 +1,81 @@
+package org.example.api.service.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Product search on PostgreSQL: pg_trgm word similarity on the name catches typos and partial words,
+ * an English tsvector over name and description ranks whole-word matches and produces the highlights.
+ * Both predicates are backed by GIN indexes, created on startup if missing.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresProductSearchIndex implements ProductSearchIndex {
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // Must match the indexed expression exactly for the planner to use idx_product_search_tsv
+    private static final String DOCUMENT = "to_tsvector('english', p.name || ' ' || coalesce(p.description, ''))";
+
+    // Matches are delimited with control characters, stripped from the text first, and turned into
+    // escaped HTML in Java: tags from ts_headline would sit next to unescaped product text
+    private static final String HEADLINE_OPTIONS = "StartSel=" + Highlights.START + ", StopSel=" + Highlights.STOP;
+    private static final String STRIP_DELIMITERS = "'" + Highlights.START + Highlights.STOP + "', ''";
+
+    // Rank in the inner query so the headlines are only computed for the rows returned
+    private static final String SEARCH_SQL =
+            "SELECT h.id, h.score, " +
+            "ts_headline('english', translate(h.name, " + STRIP_DELIMITERS + "), plainto_tsquery('english', :q), '" + HEADLINE_OPTIONS + ", HighlightAll=true') AS name_highlight, " +
+            "CASE WHEN h.description IS NULL THEN NULL ELSE " +
+            "ts_headline('english', translate(h.description, " + STRIP_DELIMITERS + "), plainto_tsquery('english', :q), '" + HEADLINE_OPTIONS + "') END AS description_highlight " +
+            "FROM (" +
+            "  SELECT p.id, p.name, p.description, " +
+            "  2 * word_similarity(:q, p.name) + ts_rank(" + DOCUMENT + ", plainto_tsquery('english', :q)) AS score " +
+            "  FROM product p " +
+            "  WHERE (p.name %> :q OR " + DOCUMENT + " @@ plainto_tsquery('english', :q)) " +
+            "  AND (:includeArchived OR p.archived = false) " +
+            "  ORDER BY score DESC, p.name " +
+            "  LIMIT :limit" +
+            ") h " +
+            "ORDER BY h.score DESC, h.name";
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_name_trgm ON product USING gin (name gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_product_search_tsv ON product " +
+                    "USING gin (to_tsvector('english', name || ' ' || coalesce(description, '')))");
+        } catch (DataAccessException e) {
+            log.warn("Could not create product search indexes, search will scan the product table", e);
+        }
+    }
+
+    @Override
+    public List<ProductSearchHit> search(String query, int limit, boolean includeArchived) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", query)
+                .addValue("includeArchived", includeArchived)
+                .addValue("limit", limit);
+
+        return namedJdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> new ProductSearchHit(
+                rs.getObject("id", UUID.class),
+                rs.getDouble("score"),
+                Highlights.fromDelimited(rs.getString("name_highlight")),
+                Highlights.fromDelimited(rs.getString("description_highlight"))
+        ));
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.api.service.search;
+
+import java.util.UUID;
+
+/**
+ * A product matching a search, with its relevance and the name and description as HTML: the text is
+ * escaped and matches are wrapped in {@code <mark>} tags
+ */
+public record ProductSearchHit(UUID productId, double score, String nameHighlight, String descriptionHighlight) {
+}
@@ -0,0 +1,19 @@
+package org.example.api.service.search;
+
+import java.util.List;
+
+/**
+ * Full-text search over product names and descriptions, tolerant to typos and partial words.
+ * The engine is picked with {@code app.search.engine}: {@code postgres} uses trigram and tsvector
+ * indexes of the database, {@code memory} keeps an inverted index in process (tests, H2).
+ */
+public interface ProductSearchIndex {
+
+    String PRE_TAG = "<mark>";
+    String POST_TAG = "</mark>";
+
+    /**
+     * Best matches first, at most {@code limit} of them
+     */
+    List<ProductSearchHit> search(String query, int limit, boolean includeArchived);
+}
@@ -0,0 +1,104 @@
+package org.example.api.util;
+
+import org.example.api.exception.InvalidRangeException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Half-open time range [start, end) of an analytics query, split into buckets of the given granularity.
+ * Times are in the server's zone, which is also the zone the daily rollup is kept in.
+ */
+public record AnalyticsRange(ZonedDateTime start, ZonedDateTime end, Granularity granularity, String labelPattern) {
+
+    /**
+     * One of the preset ranges of the analytics page: the last 30 days by day,
+     * or the last 3, 6 or 12 months by month. Anything else falls back to 6 months.
+     */
+    public static AnalyticsRange ofTimeRange(String timeRange) {
+        LocalDate today = LocalDate.now();
+        ZonedDateTime end = TimeRange.startOf(today.plusDays(1));
+
+        return switch (timeRange) {
+            case "30days" -> new AnalyticsRange(TimeRange.startOf(today.minusDays(30)), end, Granularity.DAY, "MM-dd");
+            case "3months" -> ofMonths(today.minusMonths(3), end);
+            case "1year" -> ofMonths(today.minusYears(1), end);
+            default -> ofMonths(today.minusMonths(6), end);
+        };
+    }
+
+    /**
+     * An arbitrary range. The granularity is the requested one, or the finest one if none is
+     * requested, coarsened as needed so the range never has more than maxBuckets buckets.
+     * Only hourly ranges keep their exact bounds: coarser ones are read from whole days, so they are
+     * widened to the days they touch.
+     *
+     * @throws InvalidRangeException if from is not before to, or the range has too many buckets even by month
+     */
+    public static AnalyticsRange between(ZonedDateTime from, ZonedDateTime to, Granularity requested, int maxBuckets) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRangeException("from must be before to");
+        }
+
+        ZonedDateTime start = from.withZoneSameInstant(ZoneId.systemDefault());
+        ZonedDateTime end = to.withZoneSameInstant(ZoneId.systemDefault());
+
+        ZonedDateTime dayStart = TimeRange.startOf(start.toLocalDate());
+        ZonedDateTime dayEnd = end.equals(TimeRange.startOf(end.toLocalDate()))
+                ? end
+                : TimeRange.startOf(end.toLocalDate().plusDays(1));
+
+        Granularity[] candidates = Granularity.values();
+        for (int i = requested != null ? requested.ordinal() : 0; i < candidates.length; i++) {
+            ZonedDateTime rangeStart = candidates[i] == Granularity.HOUR ? start : dayStart;
+            ZonedDateTime rangeEnd = candidates[i] == Granularity.HOUR ? end : dayEnd;
+            if (candidates[i].countBuckets(rangeStart.toLocalDateTime(), rangeEnd.toLocalDateTime()) <= maxBuckets) {
+                return new AnalyticsRange(rangeStart, rangeEnd, candidates[i], candidates[i].labelPattern());
+            }
+        }
+        throw new InvalidRangeException("Range is too long: more than " + maxBuckets + " buckets even by month");
+    }
+
+    /**
+     * Start of every bucket of the range, oldest first
+     */
+    public List<LocalDateTime> buckets() {
+        List<LocalDateTime> buckets = new ArrayList<>();
+        LocalDateTime end = end().toLocalDateTime();
+
+        for (LocalDateTime bucket = granularity.truncate(start.toLocalDateTime()); bucket.isBefore(end);
+             bucket = granularity.next(bucket)) {
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    public String label(LocalDateTime bucket) {
+        return DateTimeFormatter.ofPattern(labelPattern).format(bucket);
+    }
+
+    /**
+     * First day touched by the range
+     */
+    public LocalDate fromDay() {
+        return start.toLocalDate();
+    }
+
+    /**
+     * Day after the last day touched by the range
+     */
+    public LocalDate toDay() {
+        LocalDate day = end.toLocalDate();
+        return end.toLocalTime().equals(LocalTime.MIDNIGHT) ? day : day.plusDays(1);
+    }
+
+    private static AnalyticsRange ofMonths(LocalDate from, ZonedDateTime end) {
+        return new AnalyticsRange(TimeRange.startOf(from), end, Granularity.MONTH, Granularity.MONTH.labelPattern());
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.api.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads RFC 4180 CSV one record at a time: comma separated, fields optionally double quoted, quotes
+ * escaped by doubling, line breaks allowed inside quoted fields. The first record names the columns and
+ * every following record is returned as a map from column name to value; blank lines are skipped.
+ * Only the record being read is held in memory.
+ */
+public class CsvReader implements Iterator<Map<String, String>> {
+    private final Reader reader;
+    private final List<String> header;
+    private List<String> next;
+    private int peeked = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+        this.header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input has no header row");
+        }
+        // A leading byte order mark is not part of the first column name
+        header.replaceAll(name -> name.replace("\uFEFF", "").trim());
+        this.next = readRecord();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+
+        Map<String, String> record = new LinkedHashMap<>();
+        for (int i = 0; i < header.size() && i < next.size(); i++) {
+            record.put(header.get(i), next.get(i));
+        }
+        next = readRecord();
+        return record;
+    }
+
+    // Fields of the next non-blank record, or null at the end of the input
+    private List<String> readRecord() {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (!any) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                any = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                any = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (any || field.length() > 0) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+            } else {
+                field.append((char) c);
+                any = true;
+            }
+        }
+    }
+
+    private int read() {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        try {
+            return reader.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int peek() {
+        if (peeked == -2) {
+            peeked = read();
+        }
+        return peeked;
+    }
+}
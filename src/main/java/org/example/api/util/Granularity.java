@@ -0,0 +1,70 @@
+package org.example.api.util;
+
+import org.example.api.exception.InvalidRangeException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Size of the buckets a time range is split into. Weeks start on Monday.
+ */
+public enum Granularity {
+    HOUR(ChronoUnit.HOURS, "yyyy-MM-dd HH:00"),
+    DAY(ChronoUnit.DAYS, "yyyy-MM-dd"),
+    WEEK(ChronoUnit.WEEKS, "yyyy-MM-dd"),
+    MONTH(ChronoUnit.MONTHS, "yyyy-MM");
+
+    private final ChronoUnit unit;
+    private final String labelPattern;
+
+    Granularity(ChronoUnit unit, String labelPattern) {
+        this.unit = unit;
+        this.labelPattern = labelPattern;
+    }
+
+    /**
+     * Start of the bucket containing the given time
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+
+    public LocalDateTime next(LocalDateTime bucket) {
+        return bucket.plus(1, unit);
+    }
+
+    /**
+     * Number of buckets overlapping [start, end)
+     */
+    public long countBuckets(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime first = truncate(start);
+        long count = unit.between(first, end);
+        return first.plus(count, unit).isBefore(end) ? count + 1 : count;
+    }
+
+    /**
+     * Unit name understood by the HQL truncate() function
+     */
+    public String hqlUnit() {
+        return name().toLowerCase();
+    }
+
+    public String labelPattern() {
+        return labelPattern;
+    }
+
+    public static Granularity parse(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRangeException("granularity must be hour, day, week or month");
+        }
+    }
+}
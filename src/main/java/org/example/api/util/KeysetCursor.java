@@ -0,0 +1,45 @@
+package org.example.api.util;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque pagination cursor: the sort order of a listing and the sort key values of the last row returned.
+ * Encoded as dot-separated base64url parts so it can be passed around as a plain query parameter.
+ */
+public record KeysetCursor(String sort, Sort.Direction direction, List<String> values) {
+
+    public String encode() {
+        List<String> parts = new ArrayList<>();
+        parts.add(sort);
+        parts.add(direction.name());
+        parts.addAll(values);
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<String> encoded = new ArrayList<>();
+        for (String part : parts) {
+            encoded.add(encoder.encodeToString(part.getBytes(StandardCharsets.UTF_8)));
+        }
+        return String.join(".", encoded);
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            List<String> parts = new ArrayList<>();
+            for (String part : cursor.split("\\.")) {
+                parts.add(new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8));
+            }
+            if (parts.size() < 3) {
+                throw new IllegalArgumentException();
+            }
+
+            return new KeysetCursor(parts.get(0), Sort.Direction.valueOf(parts.get(1)), parts.subList(2, parts.size()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
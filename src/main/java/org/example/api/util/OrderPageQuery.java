@@ -0,0 +1,52 @@
+package org.example.api.util;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A resolved order page request: the cursor to resume after (null for the first page), the page size and
+ * whether to count the matching orders. Orders are listed newest first, by creation time then id, so rows
+ * never tie and the listing follows the (created_at, id) index.
+ */
+public record OrderPageQuery(KeysetCursor after, int limit, boolean includeTotal) {
+    private static final String SORT = "createdAt";
+
+    public static final Sort ORDER = Sort.by(Sort.Direction.DESC, SORT, "id");
+
+    /**
+     * Position right after the cursor row, or the start of the listing
+     */
+    public KeysetScrollPosition position() {
+        if (after == null) {
+            return ScrollPosition.keyset();
+        }
+        if (!SORT.equals(after.sort()) || after.direction() != Sort.Direction.DESC || after.values().size() != 2) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            keys.put(SORT, ZonedDateTime.parse(after.values().get(0)));
+            keys.put("id", UUID.fromString(after.values().get(1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Cursor pointing at the row a scroll position was taken at
+     */
+    public static KeysetCursor cursorAt(ScrollPosition position) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        return new KeysetCursor(SORT, Sort.Direction.DESC,
+                List.of(String.valueOf(keys.get(SORT)), String.valueOf(keys.get("id"))));
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.api.util;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+
+/**
+ * A resolved product page request: the sort order, the cursor to resume after (null for the first page),
+ * the page size and the product properties to return (empty for all of them)
+ */
+public record ProductPageQuery(ProductSort sort, Sort.Direction direction, KeysetCursor after, int limit,
+                               Set<String> fields) {
+}
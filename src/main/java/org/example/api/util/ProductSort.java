@@ -0,0 +1,131 @@
+package org.example.api.util;
+
+import org.example.api.dto.ProductDTO;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Stable sort orders of product listings. Every order ends with the id, so rows never tie
+ * and a listing can be resumed right after any row. The database and the in-memory catalogue order
+ * rows the same way, so a cursor issued by either resumes correctly in the other: names compare by
+ * code point, which is the database's {@code "C"} collation, not the locale collation of the column.
+ */
+public enum ProductSort {
+    CREATED_AT("createdAt", ZonedDateTime::parse, ProductDTO::getCreatedAt,
+            Comparator.comparing(value -> ((ZonedDateTime) value).toInstant(), Comparator.<Instant>naturalOrder())),
+    PRICE("price", BigDecimal::new, ProductDTO::getPrice,
+            Comparator.comparing(value -> (BigDecimal) value, Comparator.<BigDecimal>naturalOrder())),
+    NAME("name", value -> value, ProductDTO::getName,
+            Comparator.comparing(value -> (String) value, ProductSort::compareCodePoints));
+
+    private final String property;
+    private final Function<String, Object> parser;
+    private final Function<ProductDTO, Object> key;
+    private final Comparator<Object> keyOrder;
+
+    ProductSort(String property, Function<String, Object> parser, Function<ProductDTO, Object> key,
+                Comparator<Object> keyOrder) {
+        this.property = property;
+        this.parser = parser;
+        this.key = key;
+        this.keyOrder = keyOrder;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Position right after the row a cursor of this sort order points at
+     */
+    public KeysetScrollPosition positionAfter(KeysetCursor cursor) {
+        Object[] keys = parseKeys(cursor);
+        Map<String, Object> position = new LinkedHashMap<>();
+        position.put(property, keys[0]);
+        position.put("id", keys[1]);
+        return ScrollPosition.forward(position);
+    }
+
+    /**
+     * Cursor pointing at a product of a listing
+     */
+    public KeysetCursor cursorAt(ProductDTO product, Sort.Direction direction) {
+        return new KeysetCursor(name(), direction,
+                List.of(String.valueOf(key.apply(product)), String.valueOf(product.getId())));
+    }
+
+    /**
+     * Ascending order of this sort over products held in memory, the same order the database uses
+     */
+    public Comparator<ProductDTO> order() {
+        return (a, b) -> compare(key.apply(a), a.getId(), key.apply(b), b.getId());
+    }
+
+    /**
+     * Sign of the product's position relative to the row a cursor points at, in ascending order
+     */
+    public int compareToCursor(ProductDTO product, KeysetCursor cursor) {
+        Object[] keys = parseKeys(cursor);
+        return compare(key.apply(product), product.getId(), keys[0], (UUID) keys[1]);
+    }
+
+    private int compare(Object keyA, UUID idA, Object keyB, UUID idB) {
+        int byKey = keyOrder.compare(keyA, keyB);
+        return byKey != 0 ? byKey : compareIds(idA, idB);
+    }
+
+    private Object[] parseKeys(KeysetCursor cursor) {
+        if (!name().equals(cursor.sort()) || cursor.values().size() != 2) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        try {
+            return new Object[]{parser.apply(cursor.values().get(0)), UUID.fromString(cursor.values().get(1))};
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // The "C" collation compares UTF-8 bytes, which is code point order; String.compareTo compares UTF-16
+    // units, which differs for characters outside the Basic Multilingual Plane
+    private static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int codePointA = a.codePointAt(i);
+            int codePointB = b.codePointAt(j);
+            if (codePointA != codePointB) {
+                return Integer.compare(codePointA, codePointB);
+            }
+            i += Character.charCount(codePointA);
+            j += Character.charCount(codePointB);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    // Databases order uuids by their bytes, which is unsigned, unlike UUID.compareTo
+    private static int compareIds(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    public static ProductSort parse(String value) {
+        return switch (value) {
+            case "createdAt", "created_at" -> CREATED_AT;
+            case "price" -> PRICE;
+            case "name" -> NAME;
+            default -> throw new IllegalArgumentException("sort must be createdAt, price or name");
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.api.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Half-open time range [start, end) of a calendar period. Queries compare the bare timestamp column
+ * ({@code createdAt >= start AND createdAt < end}) instead of extracting calendar fields from it, so an
+ * index on the column can serve them. Periods are in the server's zone unless a zone is given; weeks
+ * start on Monday, like {@link Granularity#WEEK}.
+ */
+public record TimeRange(ZonedDateTime start, ZonedDateTime end) {
+
+    public TimeRange {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("start must be before end");
+        }
+    }
+
+    public static TimeRange ofDay(LocalDate day) {
+        return ofDay(day, ZoneId.systemDefault());
+    }
+
+    public static TimeRange ofDay(LocalDate day, ZoneId zone) {
+        return ofDays(day, day.plusDays(1), zone);
+    }
+
+    /**
+     * The week containing the given day
+     */
+    public static TimeRange ofWeek(LocalDate day) {
+        return ofWeek(day, ZoneId.systemDefault());
+    }
+
+    public static TimeRange ofWeek(LocalDate day, ZoneId zone) {
+        LocalDate monday = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return ofDays(monday, monday.plusWeeks(1), zone);
+    }
+
+    public static TimeRange ofMonth(YearMonth month) {
+        return ofMonth(month, ZoneId.systemDefault());
+    }
+
+    public static TimeRange ofMonth(YearMonth month, ZoneId zone) {
+        return ofDays(month.atDay(1), month.plusMonths(1).atDay(1), zone);
+    }
+
+    /**
+     * From the start of {@code from} to the start of {@code to}, so {@code to} itself is excluded
+     */
+    public static TimeRange ofDays(LocalDate from, LocalDate to) {
+        return ofDays(from, to, ZoneId.systemDefault());
+    }
+
+    public static TimeRange ofDays(LocalDate from, LocalDate to, ZoneId zone) {
+        return new TimeRange(startOf(from, zone), startOf(to, zone));
+    }
+
+    /**
+     * First instant of a day in the server's zone. Not always midnight: a zone may skip it for daylight saving.
+     */
+    public static ZonedDateTime startOf(LocalDate day) {
+        return startOf(day, ZoneId.systemDefault());
+    }
+
+    public static ZonedDateTime startOf(LocalDate day, ZoneId zone) {
+        return day.atStartOfDay(zone);
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.api.repository;
+
+import org.example.api.model.Order;
+import org.example.api.model.Order.OrderStatus;
+import org.example.api.model.User;
+import org.example.api.util.TimeRange;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// colors has a column named value, a keyword in H2
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:months;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "org.example.api.repository.OrderRepositoryMonthTest$StatementCapture"
+})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class OrderRepositoryMonthTest {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("customer@example.org");
+        user.setPassword("secret");
+        user.setCreatedAt(ZonedDateTime.now());
+        entityManager.persist(user);
+    }
+
+    @Test
+    void includesTheFirstAndLastInstantOfTheMonth() {
+        ZonedDateTime march = ZonedDateTime.of(2025, 3, 1, 0, 0, 0, 0, ZONE);
+        ZonedDateTime april = march.plusMonths(1);
+        // created_at keeps microseconds, so one microsecond is the closest a row can get to a boundary
+        Order first = orderAt(march);
+        Order last = orderAt(april.minus(1, ChronoUnit.MICROS));
+        orderAt(march.minus(1, ChronoUnit.MICROS));
+        orderAt(april);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Order> orders = orderRepository.findByYearAndMonth(2025, 3);
+
+        assertThat(orders).extracting(Order::getId).containsExactlyInAnyOrder(first.getId(), last.getId());
+    }
+
+    @Test
+    void crossesTheYearAtTheEndOfDecember() {
+        ZonedDateTime december = ZonedDateTime.of(2024, 12, 1, 0, 0, 0, 0, ZONE);
+        Order last = orderAt(december.plusMonths(1).minus(1, ChronoUnit.MICROS));
+        Order nextYear = orderAt(december.plusMonths(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(orderRepository.findByYearAndMonth(2024, 12)).extracting(Order::getId).containsExactly(last.getId());
+        assertThat(orderRepository.findByYearAndMonth(2025, 1)).extracting(Order::getId).containsExactly(nextYear.getId());
+    }
+
+    @Test
+    void readsTheMonthThroughTheCreatedAtIndex() {
+        entityManager.flush();
+        StatementCapture.STATEMENTS.clear();
+        orderRepository.findByYearAndMonth(2025, 3);
+
+        // Explain the statement the repository actually ran, with the bounds it ran with
+        String query = StatementCapture.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase().startsWith("select") && sql.contains("created_at"))
+                .findFirst()
+                .orElseThrow();
+        TimeRange march = TimeRange.ofMonth(YearMonth.of(2025, 3));
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + query, String.class,
+                march.start().toOffsetDateTime(), march.end().toOffsetDateTime());
+
+        assertThat(plan).containsIgnoringCase("idx_orders_created_at");
+    }
+
+    private Order orderAt(ZonedDateTime createdAt) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.NEW);
+        order.setTotal(BigDecimal.ONE);
+        entityManager.persist(order);
+        // Replaces the creation time set on persist
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+
+    // Records the SQL Hibernate sends, so plans are checked against the real statements
+    public static class StatementCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
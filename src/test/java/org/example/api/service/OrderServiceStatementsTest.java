@@ -0,0 +1,129 @@
+package org.example.api.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.api.dto.CursorPageDTO;
+import org.example.api.dto.OrderDTO;
+import org.example.api.model.Category;
+import org.example.api.model.Order;
+import org.example.api.model.Order.OrderStatus;
+import org.example.api.model.OrderItem;
+import org.example.api.model.Product;
+import org.example.api.model.User;
+import org.example.api.util.OrderPageQuery;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// colors has a column named value, a keyword in H2
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orders;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(OrderService.class)
+class OrderServiceStatementsTest {
+    private static final int ORDERS = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private StockService stockService;
+
+    @MockitoBean
+    private DailySalesRollupService rollupService;
+
+    @MockitoBean
+    private CustomerFirstOrderService firstOrderService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Shirts");
+        entityManager.persist(category);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Shirt " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setStock(100);
+            product.setArchived(false);
+            product.setFeatured(false);
+            product.setCategory(category);
+            products.add(entityManager.persist(product));
+        }
+
+        // Each order has its own customer, so loading customers one by one would show up as well
+        for (int i = 0; i < ORDERS; i++) {
+            User user = new User();
+            user.setEmail("customer" + i + "@example.org");
+            user.setFirstName("Customer");
+            user.setLastName(String.valueOf(i));
+            user.setPassword("secret");
+            user.setCreatedAt(ZonedDateTime.now());
+            entityManager.persist(user);
+
+            Order order = new Order();
+            order.setUser(user);
+            order.setStatus(OrderStatus.NEW);
+            order.setTotal(BigDecimal.TEN);
+            entityManager.persist(order);
+            for (int k = 0; k <= i % 3; k++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(products.get(k));
+                item.setQuantity(1);
+                item.setUnitPrice(BigDecimal.TEN);
+                entityManager.persist(item);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void readsAPageOfOrdersWithTheirItemsInTwoStatements() {
+        CursorPageDTO<OrderDTO> page = orderService.findOrders(null, null, null, null,
+                new OrderPageQuery(null, ORDERS, false));
+
+        assertThat(page.getItems()).hasSize(ORDERS);
+        assertThat(page.getItems()).allSatisfy(order -> {
+            assertThat(order.getUserEmail()).startsWith("customer");
+            assertThat(order.getItems()).isNotEmpty()
+                    .allSatisfy(item -> assertThat(item.getProductName()).startsWith("Shirt"));
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.api.service.catalogue;
+
+import org.example.api.dto.CursorPageDTO;
+import org.example.api.dto.ProductDTO;
+import org.example.api.dto.StockLevelDTO;
+import org.example.api.util.KeysetCursor;
+import org.example.api.util.ProductPageQuery;
+import org.example.api.util.ProductSort;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogueSnapshotTest {
+    private static final ProductFilter ALL = ProductFilter.of(null, null, null, null, null, null);
+
+    private static ProductDTO product(String name, int price) {
+        ProductDTO product = new ProductDTO();
+        product.setId(UUID.randomUUID());
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(price));
+        product.setCreatedAt(ZonedDateTime.of(2025, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusDays(price));
+        product.setArchived(false);
+        product.setFeatured(false);
+        return product;
+    }
+
+    private static CatalogueSnapshot snapshot(ProductDTO... products) {
+        return CatalogueSnapshot.of(1, List.of(products), List.of(), List.of(), List.of());
+    }
+
+    // Every page of a listing, following the next cursors
+    private static List<String> names(CatalogueSnapshot snapshot, ProductSort sort, Sort.Direction direction, int limit) {
+        List<String> names = new ArrayList<>();
+        KeysetCursor after = null;
+        do {
+            CursorPageDTO<ProductDTO> page = snapshot.findProducts(ALL,
+                    new ProductPageQuery(sort, direction, after, limit, Set.of()));
+            page.getItems().forEach(product -> names.add(product.getName()));
+            after = page.getNextCursor() != null ? KeysetCursor.decode(page.getNextCursor()) : null;
+        } while (after != null);
+        return names;
+    }
+
+    @Test
+    void pagesThroughEveryOrderInBothDirections() {
+        CatalogueSnapshot snapshot = snapshot(product("c", 3), product("a", 5), product("e", 1), product("b", 4),
+                product("d", 2));
+
+        assertThat(names(snapshot, ProductSort.NAME, Sort.Direction.ASC, 2)).containsExactly("a", "b", "c", "d", "e");
+        assertThat(names(snapshot, ProductSort.NAME, Sort.Direction.DESC, 2)).containsExactly("e", "d", "c", "b", "a");
+        assertThat(names(snapshot, ProductSort.PRICE, Sort.Direction.ASC, 3)).containsExactly("e", "d", "c", "b", "a");
+        assertThat(names(snapshot, ProductSort.CREATED_AT, Sort.Direction.DESC, 1)).containsExactly("a", "b", "c", "d", "e");
+    }
+
+    @Test
+    void resumesAfterACursorRowThatIsGone() {
+        ProductDTO c = product("c", 3);
+        CatalogueSnapshot snapshot = snapshot(product("a", 1), product("b", 2), c, product("d", 4), product("e", 5));
+        KeysetCursor ascending = ProductSort.NAME.cursorAt(c, Sort.Direction.ASC);
+        KeysetCursor descending = ProductSort.NAME.cursorAt(c, Sort.Direction.DESC);
+
+        CatalogueSnapshot withoutC = snapshot.withProduct(2, c.getId(), null);
+
+        assertThat(withoutC.findProducts(ALL, new ProductPageQuery(ProductSort.NAME, Sort.Direction.ASC, ascending, 10, Set.of()))
+                .getItems()).extracting(ProductDTO::getName).containsExactly("d", "e");
+        assertThat(withoutC.findProducts(ALL, new ProductPageQuery(ProductSort.NAME, Sort.Direction.DESC, descending, 10, Set.of()))
+                .getItems()).extracting(ProductDTO::getName).containsExactly("b", "a");
+    }
+
+    @Test
+    void addsAProductInSortOrder() {
+        CatalogueSnapshot snapshot = snapshot(product("a", 1), product("c", 3));
+        ProductDTO b = product("b", 2);
+
+        CatalogueSnapshot updated = snapshot.withProduct(2, b.getId(), b);
+
+        assertThat(updated.version()).isEqualTo(2);
+        assertThat(updated.product(b.getId())).contains(b);
+        assertThat(names(updated, ProductSort.NAME, Sort.Direction.ASC, 10)).containsExactly("a", "b", "c");
+        assertThat(names(updated, ProductSort.PRICE, Sort.Direction.DESC, 10)).containsExactly("c", "b", "a");
+        // The previous snapshot is untouched
+        assertThat(snapshot.product(b.getId())).isEmpty();
+        assertThat(names(snapshot, ProductSort.NAME, Sort.Direction.ASC, 10)).containsExactly("a", "c");
+    }
+
+    @Test
+    void movesAReplacedProductToItsNewPosition() {
+        ProductDTO a = product("a", 1);
+        CatalogueSnapshot snapshot = snapshot(a, product("b", 2), product("c", 3));
+        ProductDTO renamed = product("d", 4);
+        renamed.setId(a.getId());
+
+        CatalogueSnapshot updated = snapshot.withProduct(2, a.getId(), renamed);
+
+        assertThat(updated.product(a.getId())).contains(renamed);
+        assertThat(names(updated, ProductSort.NAME, Sort.Direction.ASC, 10)).containsExactly("b", "c", "d");
+        assertThat(names(updated, ProductSort.PRICE, Sort.Direction.ASC, 10)).containsExactly("b", "c", "d");
+        assertThat(names(snapshot, ProductSort.NAME, Sort.Direction.ASC, 10)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void removesADeletedProduct() {
+        ProductDTO b = product("b", 2);
+        CatalogueSnapshot snapshot = snapshot(product("a", 1), b, product("c", 3));
+
+        CatalogueSnapshot updated = snapshot.withProduct(2, b.getId(), null);
+
+        assertThat(updated.product(b.getId())).isEmpty();
+        assertThat(names(updated, ProductSort.NAME, Sort.Direction.ASC, 10)).containsExactly("a", "c");
+        assertThat(names(updated, ProductSort.CREATED_AT, Sort.Direction.DESC, 10)).containsExactly("c", "a");
+
+        // Added back, it takes a new ordinal rather than its cleared one
+        CatalogueSnapshot restored = updated.withProduct(3, b.getId(), b);
+        assertThat(names(restored, ProductSort.NAME, Sort.Direction.ASC, 1)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void appliesNewerStockLevelsOnly() {
+        ProductDTO a = product("a", 1);
+        a.setStock(10);
+        a.setVersion(3L);
+        ProductDTO b = product("b", 2);
+        CatalogueSnapshot snapshot = snapshot(a, b);
+
+        CatalogueSnapshot updated = snapshot.withStockLevels(2, List.of(
+                new StockLevelDTO(a.getId(), 7, 4), new StockLevelDTO(UUID.randomUUID(), 1, 1)));
+
+        assertThat(updated.version()).isEqualTo(2);
+        assertThat(updated.product(a.getId())).get().extracting(ProductDTO::getStock, ProductDTO::getVersion)
+                .containsExactly(7, 4L);
+        assertThat(snapshot.product(a.getId())).get().extracting(ProductDTO::getStock).isEqualTo(10);
+        assertThat(names(updated, ProductSort.NAME, Sort.Direction.ASC, 10)).containsExactly("a", "b");
+        // A level read before the product's current version changes nothing
+        assertThat(updated.withStockLevels(3, List.of(new StockLevelDTO(a.getId(), 9, 4)))).isSameAs(updated);
+    }
+
+    @Test
+    void ignoresTheDeletionOfAnUnknownProduct() {
+        CatalogueSnapshot snapshot = snapshot(product("a", 1));
+
+        assertThat(snapshot.withProduct(2, UUID.randomUUID(), null)).isSameAs(snapshot);
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.api.service.catalogue;
+
+import org.example.api.dto.CategoryDTO;
+import org.example.api.dto.ColorDTO;
+import org.example.api.dto.ProductDTO;
+import org.example.api.dto.SizeDTO;
+import org.example.api.service.catalogue.ProductAttributeIndex.Facet;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductAttributeIndexTest {
+    private static final UUID SHIRTS = UUID.randomUUID();
+    private static final UUID TROUSERS = UUID.randomUUID();
+    private static final UUID RED = UUID.randomUUID();
+    private static final UUID BLUE = UUID.randomUUID();
+    private static final UUID SMALL = UUID.randomUUID();
+    private static final ProductFilter ALL = ProductFilter.of(null, null, null, null, null, null);
+
+    private static ProductDTO product(UUID category, UUID color, UUID size, boolean archived, boolean featured) {
+        ProductDTO product = new ProductDTO();
+        product.setId(UUID.randomUUID());
+        product.setCategory(new CategoryDTO(category, null, null));
+        product.setColor(color != null ? new ColorDTO(color, null, null, null) : null);
+        product.setSize(size != null ? new SizeDTO(size, null, null, null) : null);
+        product.setArchived(archived);
+        product.setFeatured(featured);
+        return product;
+    }
+
+    // 0: red small shirt, 1: blue shirt (featured), 2: red trousers (archived), 3: blue small trousers
+    private static final ProductDTO[] PRODUCTS = {
+            product(SHIRTS, RED, SMALL, false, false),
+            product(SHIRTS, BLUE, null, false, true),
+            product(TROUSERS, RED, null, true, false),
+            product(TROUSERS, BLUE, SMALL, false, false)
+    };
+
+    private static BitSet ordinals(int... ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+
+    @Test
+    void matchesAnyValueWithinAnAttributeAndEveryAttribute() {
+        ProductAttributeIndex index = ProductAttributeIndex.of(PRODUCTS);
+
+        assertThat(index.matching(ALL)).isEqualTo(ordinals(0, 1, 2, 3));
+        assertThat(index.matching(new ProductFilter(null, Set.of(SHIRTS, TROUSERS), Set.of(RED), Set.of(), null, null)))
+                .isEqualTo(ordinals(0, 2));
+        assertThat(index.matching(new ProductFilter(null, Set.of(), Set.of(BLUE), Set.of(SMALL), null, null)))
+                .isEqualTo(ordinals(3));
+        assertThat(index.matching(ProductFilter.of(null, null, null, null, false, null))).isEqualTo(ordinals(0, 1, 3));
+        assertThat(index.matching(ProductFilter.of(null, UUID.randomUUID(), null, null, null, null))).isEqualTo(ordinals());
+    }
+
+    @Test
+    void leavesAFacetsOwnFilterOutOfItsCounts() {
+        ProductAttributeIndex index = ProductAttributeIndex.of(PRODUCTS);
+
+        Map<Facet, Map<Object, Integer>> counts = index.facetCounts(ProductFilter.of(null, SHIRTS, RED, null, null, null), null);
+
+        // Other categories are counted with the color filter only, other colors with the category filter only
+        assertThat(counts.get(Facet.CATEGORY)).isEqualTo(Map.of(SHIRTS, 1, TROUSERS, 1));
+        assertThat(counts.get(Facet.COLOR)).isEqualTo(Map.of(RED, 1, BLUE, 1));
+        assertThat(counts.get(Facet.SIZE)).isEqualTo(Map.of(SMALL, 1));
+        assertThat(counts.get(Facet.ARCHIVED)).isEqualTo(Map.of(true, 0, false, 1));
+        assertThat(counts.get(Facet.FEATURED)).isEqualTo(Map.of(true, 0, false, 1));
+    }
+
+    @Test
+    void countsOnlyProductsMatchingTheName() {
+        ProductAttributeIndex index = ProductAttributeIndex.of(PRODUCTS);
+
+        Map<Facet, Map<Object, Integer>> counts = index.facetCounts(ALL, ordinals(1, 2));
+
+        assertThat(counts.get(Facet.CATEGORY)).isEqualTo(Map.of(SHIRTS, 1, TROUSERS, 1));
+        assertThat(counts.get(Facet.SIZE)).isEmpty();
+        assertThat(counts.get(Facet.FEATURED)).isEqualTo(Map.of(true, 1, false, 1));
+    }
+
+    @Test
+    void appliesAChangeToACopy() {
+        ProductAttributeIndex index = ProductAttributeIndex.of(PRODUCTS);
+        ProductDTO recolored = product(SHIRTS, RED, null, false, true);
+        recolored.setId(PRODUCTS[1].getId());
+
+        ProductAttributeIndex updated = index.with(1, PRODUCTS[1], recolored);
+
+        assertThat(updated.matching(ProductFilter.of(null, null, RED, null, null, null))).isEqualTo(ordinals(0, 1, 2));
+        assertThat(updated.facetCounts(ALL, null).get(Facet.COLOR)).isEqualTo(Map.of(RED, 3, BLUE, 1));
+        assertThat(index.matching(ProductFilter.of(null, null, RED, null, null, null))).isEqualTo(ordinals(0, 2));
+
+        ProductAttributeIndex deleted = updated.with(3, PRODUCTS[3], null);
+        assertThat(deleted.matching(ALL)).isEqualTo(ordinals(0, 1, 2));
+        assertThat(deleted.facetCounts(ALL, null).get(Facet.COLOR)).isEqualTo(Map.of(RED, 3));
+        assertThat(deleted.facetCounts(ALL, null).get(Facet.ARCHIVED)).isEqualTo(Map.of(true, 1, false, 2));
+
+        ProductAttributeIndex added = deleted.with(4, null, product(TROUSERS, BLUE, SMALL, false, false));
+        assertThat(added.matching(ProductFilter.of(null, TROUSERS, null, SMALL, null, null))).isEqualTo(ordinals(4));
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.api.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HighlightsTest {
+
+    @Test
+    void marksDelimitedMatchesAndEscapesEverythingElse() {
+        String delimited = "<script>" + Highlights.START + "Linen" + Highlights.STOP + " & "
+                + Highlights.START + "a<b" + Highlights.STOP + "\"";
+
+        assertThat(Highlights.fromDelimited(delimited))
+                .isEqualTo("&lt;script&gt;<mark>Linen</mark> &amp; <mark>a&lt;b</mark>&quot;");
+    }
+
+    @Test
+    void keepsAnUnterminatedMatchAsText() {
+        assertThat(Highlights.fromDelimited("Linen " + Highlights.START + "shirt"))
+                .isEqualTo("Linen " + Highlights.START + "shirt");
+        assertThat(Highlights.fromDelimited(null)).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.api.service.search;
+
+import org.example.api.event.ProductChangedEvent;
+import org.example.api.model.Product;
+import org.example.api.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryProductSearchIndexTest {
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final InMemoryProductSearchIndex index = new InMemoryProductSearchIndex(productRepository);
+
+    private Product shirt;
+    private Product trousers;
+    private Product archived;
+
+    private static Product product(String name, String description, boolean archived) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName(name);
+        product.setDescription(description);
+        product.setArchived(archived);
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        shirt = product("Linen shirt", "Loose fit, <b>breathable</b> & light", false);
+        trousers = product("Chino trousers", "Slim fit cotton", false);
+        archived = product("Flannel shirt", "Warm cotton", true);
+        when(productRepository.findAll()).thenReturn(List.of(shirt, trousers, archived));
+        index.rebuild();
+    }
+
+    private List<UUID> ids(String query, boolean includeArchived) {
+        return index.search(query, 10, includeArchived).stream().map(ProductSearchHit::productId).toList();
+    }
+
+    @Test
+    void findsMisspeltWords() {
+        assertThat(ids("trowsers", false)).containsExactly(trousers.getId());
+        assertThat(ids("linnen", false)).containsExactly(shirt.getId());
+    }
+
+    @Test
+    void findsWordsByPrefix() {
+        assertThat(ids("brea", false)).containsExactly(shirt.getId());
+        // A single letter is not a prefix match, it would match nearly everything
+        assertThat(ids("l", false)).isEmpty();
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        Product cottonName = product("Cotton tee", null, false);
+        when(productRepository.findById(cottonName.getId())).thenReturn(Optional.of(cottonName));
+        index.onProductChanged(new ProductChangedEvent(cottonName.getId()));
+
+        assertThat(ids("cotton", false)).containsExactly(cottonName.getId(), trousers.getId());
+    }
+
+    @Test
+    void leavesArchivedProductsOutUnlessAsked() {
+        assertThat(ids("shirt", false)).containsExactly(shirt.getId());
+        assertThat(ids("shirt", true)).containsExactlyInAnyOrder(shirt.getId(), archived.getId());
+    }
+
+    @Test
+    void highlightsMatchedWordsAndEscapesTheRest() {
+        ProductSearchHit hit = index.search("breathable", 10, false).get(0);
+
+        assertThat(hit.nameHighlight()).isEqualTo("Linen shirt");
+        assertThat(hit.descriptionHighlight())
+                .isEqualTo("Loose fit, &lt;b&gt;<mark>breathable</mark>&lt;/b&gt; &amp; light");
+    }
+
+    @Test
+    void followsProductChanges() {
+        Product renamed = product("Denim jacket", null, false);
+        renamed.setId(shirt.getId());
+        when(productRepository.findById(shirt.getId())).thenReturn(Optional.of(renamed));
+        index.onProductChanged(new ProductChangedEvent(shirt.getId()));
+
+        assertThat(ids("linen", false)).isEmpty();
+        assertThat(ids("jacket", false)).containsExactly(shirt.getId());
+
+        when(productRepository.findById(shirt.getId())).thenReturn(Optional.empty());
+        index.onProductChanged(new ProductChangedEvent(shirt.getId()));
+
+        assertThat(ids("jacket", false)).isEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.api.util;
+
+import org.example.api.exception.InvalidRangeException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalyticsRangeTest {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static ZonedDateTime at(int year, int month, int day, int hour) {
+        return ZonedDateTime.of(year, month, day, hour, 0, 0, 0, ZONE);
+    }
+
+    @Test
+    void usesTheFinestGranularityWithinTheBucketLimit() {
+        AnalyticsRange threeDays = AnalyticsRange.between(at(2025, 3, 3, 0), at(2025, 3, 6, 0), null, 200);
+        assertThat(threeDays.granularity()).isEqualTo(Granularity.HOUR);
+        assertThat(threeDays.buckets()).hasSize(72);
+
+        AnalyticsRange tenDays = AnalyticsRange.between(at(2025, 3, 3, 0), at(2025, 3, 13, 0), null, 200);
+        assertThat(tenDays.granularity()).isEqualTo(Granularity.DAY);
+        assertThat(tenDays.buckets()).hasSize(10);
+    }
+
+    @Test
+    void coarsensTheRequestedGranularity() {
+        AnalyticsRange range = AnalyticsRange.between(at(2024, 1, 1, 0), at(2025, 1, 1, 0), Granularity.DAY, 200);
+
+        assertThat(range.granularity()).isEqualTo(Granularity.WEEK);
+        assertThat(range.buckets()).hasSizeLessThanOrEqualTo(200);
+    }
+
+    @Test
+    void neverRefinesTheRequestedGranularity() {
+        AnalyticsRange range = AnalyticsRange.between(at(2025, 3, 3, 0), at(2025, 3, 4, 0), Granularity.MONTH, 200);
+
+        assertThat(range.granularity()).isEqualTo(Granularity.MONTH);
+        assertThat(range.buckets()).containsExactly(LocalDateTime.of(2025, 3, 1, 0, 0));
+    }
+
+    @Test
+    void rejectsRangesTooLongEvenByMonth() {
+        assertThatThrownBy(() -> AnalyticsRange.between(at(1900, 1, 1, 0), at(2100, 1, 1, 0), null, 200))
+                .isInstanceOf(InvalidRangeException.class)
+                .hasMessageContaining("200 buckets");
+    }
+
+    @Test
+    void acceptsARangeOfExactlyTheLimitByMonth() {
+        AnalyticsRange range = AnalyticsRange.between(at(2000, 1, 1, 0), at(2000, 1, 1, 0).plusMonths(200), null, 200);
+
+        assertThat(range.granularity()).isEqualTo(Granularity.MONTH);
+        assertThat(range.buckets()).hasSize(200);
+    }
+
+    @Test
+    void rejectsEmptyAndReversedRanges() {
+        assertThatThrownBy(() -> AnalyticsRange.between(at(2025, 3, 3, 0), at(2025, 3, 3, 0), null, 200))
+                .isInstanceOf(InvalidRangeException.class);
+        assertThatThrownBy(() -> AnalyticsRange.between(at(2025, 3, 4, 0), at(2025, 3, 3, 0), null, 200))
+                .isInstanceOf(InvalidRangeException.class);
+    }
+
+    @Test
+    void daysCoverEveryDayTouchedByTheRange() {
+        AnalyticsRange range = AnalyticsRange.between(at(2025, 3, 3, 10), at(2025, 3, 5, 6), null, 200);
+
+        assertThat(range.fromDay()).isEqualTo(at(2025, 3, 3, 0).toLocalDate());
+        assertThat(range.toDay()).isEqualTo(at(2025, 3, 6, 0).toLocalDate());
+    }
+
+    @Test
+    void widensDailyRangesToWholeDaysButKeepsHourlyOnesExact() {
+        AnalyticsRange daily = AnalyticsRange.between(at(2025, 3, 3, 10), at(2025, 3, 12, 6), Granularity.DAY, 200);
+        assertThat(daily.start()).isEqualTo(at(2025, 3, 3, 0));
+        assertThat(daily.end()).isEqualTo(at(2025, 3, 13, 0));
+
+        AnalyticsRange hourly = AnalyticsRange.between(at(2025, 3, 3, 10), at(2025, 3, 5, 6), null, 200);
+        assertThat(hourly.granularity()).isEqualTo(Granularity.HOUR);
+        assertThat(hourly.start()).isEqualTo(at(2025, 3, 3, 10));
+        assertThat(hourly.end()).isEqualTo(at(2025, 3, 5, 6));
+    }
+
+    @Test
+    void labelsBucketsWithThePatternOfTheGranularity() {
+        AnalyticsRange range = AnalyticsRange.between(at(2025, 1, 1, 0), at(2025, 4, 1, 0), Granularity.MONTH, 200);
+        List<LocalDateTime> buckets = range.buckets();
+
+        assertThat(buckets.stream().map(range::label)).containsExactly("2025-01", "2025-02", "2025-03");
+    }
+}
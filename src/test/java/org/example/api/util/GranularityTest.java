@@ -0,0 +1,51 @@
+package org.example.api.util;
+
+import org.example.api.exception.InvalidRangeException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GranularityTest {
+    // A Wednesday
+    private static final LocalDateTime TIME = LocalDateTime.of(2025, 1, 1, 13, 45, 12);
+
+    @Test
+    void truncatesToTheStartOfTheBucket() {
+        assertThat(Granularity.HOUR.truncate(TIME)).isEqualTo(LocalDateTime.of(2025, 1, 1, 13, 0));
+        assertThat(Granularity.DAY.truncate(TIME)).isEqualTo(LocalDateTime.of(2025, 1, 1, 0, 0));
+        assertThat(Granularity.MONTH.truncate(TIME)).isEqualTo(LocalDateTime.of(2025, 1, 1, 0, 0));
+        // Weeks start on the Monday before, even in the previous year
+        assertThat(Granularity.WEEK.truncate(TIME)).isEqualTo(LocalDateTime.of(2024, 12, 30, 0, 0));
+        assertThat(Granularity.WEEK.truncate(LocalDateTime.of(2024, 12, 30, 0, 0))).isEqualTo(LocalDateTime.of(2024, 12, 30, 0, 0));
+    }
+
+    @Test
+    void stepsToTheNextBucket() {
+        assertThat(Granularity.WEEK.next(LocalDateTime.of(2024, 12, 30, 0, 0))).isEqualTo(LocalDateTime.of(2025, 1, 6, 0, 0));
+        assertThat(Granularity.MONTH.next(LocalDateTime.of(2024, 2, 1, 0, 0))).isEqualTo(LocalDateTime.of(2024, 3, 1, 0, 0));
+        assertThat(Granularity.HOUR.next(LocalDateTime.of(2024, 12, 31, 23, 0))).isEqualTo(LocalDateTime.of(2025, 1, 1, 0, 0));
+    }
+
+    @Test
+    void countsEveryBucketOverlappingTheRange() {
+        LocalDateTime march = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+        assertThat(Granularity.MONTH.countBuckets(march, march.plusMonths(1))).isEqualTo(1);
+        assertThat(Granularity.MONTH.countBuckets(march, march.plusMonths(1).plusMinutes(1))).isEqualTo(2);
+        assertThat(Granularity.DAY.countBuckets(march.plusHours(23), march.plusHours(25))).isEqualTo(2);
+        assertThat(Granularity.HOUR.countBuckets(march.plusMinutes(30), march.plusMinutes(40))).isEqualTo(1);
+        // 2025-03-05 is a Wednesday, so the range touches the weeks of March 3 and March 10
+        assertThat(Granularity.WEEK.countBuckets(march.plusDays(4), march.plusDays(11))).isEqualTo(2);
+    }
+
+    @Test
+    void parsesTheGranularityParameter() {
+        assertThat(Granularity.parse("Week")).isEqualTo(Granularity.WEEK);
+        assertThatThrownBy(() -> Granularity.parse("year"))
+                .isInstanceOf(InvalidRangeException.class)
+                .hasMessage("granularity must be hour, day, week or month");
+    }
+}
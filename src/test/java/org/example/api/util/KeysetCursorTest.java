@@ -0,0 +1,43 @@
+package org.example.api.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        KeysetCursor cursor = new KeysetCursor("NAME", Sort.Direction.DESC,
+                List.of("Zoë's shirt. 100% cotton / 🧵", "0b8e7f0c-2b1a-4c3d-9e8f-7a6b5c4d3e2f"));
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_.-]+");
+        assertThat(KeysetCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsACursorWithoutValues() {
+        String encoded = new KeysetCursor("PRICE", Sort.Direction.ASC, List.of("1")).encode();
+        String withoutValues = encoded.substring(0, encoded.lastIndexOf('.'));
+
+        assertThatThrownBy(() -> KeysetCursor.decode(withoutValues))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        for (String cursor : List.of("", "not base64!", "UFJJQ0U.Tk9QRQ.MQ", "%%.%%.%%")) {
+            assertThatThrownBy(() -> KeysetCursor.decode(cursor))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.api.util;
+
+import org.example.api.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class ProductSortTest {
+    private static final UUID LOW_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID HIGH_ID = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+    private static ProductDTO product(UUID id, String name, String price) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setCreatedAt(ZonedDateTime.of(2025, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC));
+        return product;
+    }
+
+    @Test
+    void ordersIdsAsUnsignedBytesLikeTheDatabase() {
+        // UUID.compareTo is signed and would put HIGH_ID first
+        assertThat(HIGH_ID.compareTo(LOW_ID)).isNegative();
+
+        List<ProductDTO> products = new ArrayList<>(List.of(product(HIGH_ID, "Shirt", "10"), product(LOW_ID, "Shirt", "10")));
+        products.sort(ProductSort.PRICE.order());
+
+        assertThat(products).extracting(ProductDTO::getId).containsExactly(LOW_ID, HIGH_ID);
+    }
+
+    @Test
+    void ordersNamesByCodePoint() {
+        // U+1F600 is outside the Basic Multilingual Plane: a surrogate pair that String.compareTo puts before U+FB01
+        String emoji = "😀";
+        String ligature = "ﬁ";
+        assertThat(emoji.compareTo(ligature)).isNegative();
+
+        List<ProductDTO> products = new ArrayList<>(List.of(
+                product(LOW_ID, emoji, "1"), product(LOW_ID, ligature, "1"), product(LOW_ID, "b", "1"),
+                product(LOW_ID, "B", "1"), product(LOW_ID, "Ba", "1")));
+        products.sort(ProductSort.NAME.order());
+
+        assertThat(products).extracting(ProductDTO::getName).containsExactly("B", "Ba", "b", ligature, emoji);
+    }
+
+    @Test
+    void comparesProductsToTheCursorRow() {
+        ProductDTO cursorRow = product(LOW_ID, "Shirt", "10.00");
+        KeysetCursor cursor = ProductSort.PRICE.cursorAt(cursorRow, Sort.Direction.ASC);
+
+        assertThat(ProductSort.PRICE.compareToCursor(cursorRow, cursor)).isZero();
+        // Equal prices at a different scale tie on the price and fall back to the id
+        assertThat(ProductSort.PRICE.compareToCursor(product(HIGH_ID, "Shirt", "10"), cursor)).isPositive();
+        assertThat(ProductSort.PRICE.compareToCursor(product(HIGH_ID, "Shirt", "9.99"), cursor)).isNegative();
+        assertThat(ProductSort.PRICE.compareToCursor(product(LOW_ID, "Shirt", "10.01"), cursor)).isPositive();
+    }
+
+    @Test
+    void comparesCreationTimesAsInstants() {
+        ProductDTO cursorRow = product(LOW_ID, "Shirt", "1");
+        KeysetCursor cursor = ProductSort.CREATED_AT.cursorAt(cursorRow, Sort.Direction.DESC);
+        ProductDTO sameInstant = product(LOW_ID, "Shirt", "1");
+        sameInstant.setCreatedAt(cursorRow.getCreatedAt().withZoneSameInstant(ZoneOffset.ofHours(2)));
+
+        assertThat(ProductSort.CREATED_AT.compareToCursor(sameInstant, cursor)).isZero();
+    }
+
+    @Test
+    void resumesRightAfterTheCursorRow() {
+        ProductDTO cursorRow = product(HIGH_ID, "Shirt", "10");
+        KeysetScrollPosition position = ProductSort.NAME.positionAfter(ProductSort.NAME.cursorAt(cursorRow, Sort.Direction.ASC));
+
+        assertThat(position.getKeys()).containsExactly(
+                entry("name", "Shirt"),
+                entry("id", HIGH_ID));
+    }
+
+    @Test
+    void rejectsACursorOfAnotherSortOrMalformedKeys() {
+        ProductDTO row = product(LOW_ID, "Shirt", "10");
+        KeysetCursor byName = ProductSort.NAME.cursorAt(row, Sort.Direction.ASC);
+        KeysetCursor badPrice = new KeysetCursor("PRICE", Sort.Direction.ASC, List.of("ten", LOW_ID.toString()));
+        KeysetCursor badId = new KeysetCursor("PRICE", Sort.Direction.ASC, List.of("10", "not-a-uuid"));
+
+        for (KeysetCursor cursor : List.of(byName, badPrice, badId)) {
+            assertThatThrownBy(() -> ProductSort.PRICE.compareToCursor(row, cursor))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    @Test
+    void parsesTheSortParameter() {
+        assertThat(ProductSort.parse("created_at")).isEqualTo(ProductSort.CREATED_AT);
+        assertThat(ProductSort.parse("name")).isEqualTo(ProductSort.NAME);
+        assertThatThrownBy(() -> ProductSort.parse("stock")).isInstanceOf(IllegalArgumentException.class);
+    }
+}